@@ -0,0 +1,234 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugin.resources.remote;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.DependencyManagement;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginExecution;
+import org.apache.maven.model.PluginManagement;
+import org.apache.maven.model.ReportPlugin;
+import org.apache.maven.model.ReportSet;
+import org.apache.maven.model.Reporting;
+import org.apache.maven.model.Repository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Micro-benchmarks of the model inheritance, on generated parent and child models with {@link Templates#size} plugins,
+ * managed plugins, report plugins, dependencies, managed dependencies and repositories, plus one plugin with as many
+ * executions and one report plugin with as many report sets. The child overrides every other element of the parent
+ * and adds as many of its own.
+ * <p>
+ * The merges modify the models, so each invocation works on fresh copies of the part of the models it merges.
+ * {@link ModelMergeScalingCheck} runs these benchmarks at growing sizes and fails when their time grows faster than
+ * linearithmically.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ModelMergeBenchmark {
+    private final ModelInheritanceAssembler assembler = new ModelInheritanceAssembler();
+
+    /**
+     * The generated models, copied for each invocation.
+     */
+    @State(Scope.Thread)
+    public static class Templates {
+        @Param({"100", "1000", "10000"})
+        public int size;
+
+        private Model parent;
+
+        private Model child;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            parent = model(size, "parent", false);
+            child = model(size, "child", true);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Models {
+        private Model parent;
+
+        private Model child;
+
+        @Setup(Level.Invocation)
+        public void copy(Templates templates) {
+            parent = templates.parent.clone();
+            child = templates.child.clone();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Builds {
+        private Build parent;
+
+        private Build child;
+
+        @Setup(Level.Invocation)
+        public void copy(Templates templates) {
+            parent = templates.parent.getBuild().clone();
+            child = templates.child.getBuild().clone();
+        }
+    }
+
+    /**
+     * Models holding only reports.
+     */
+    @State(Scope.Thread)
+    public static class Reports {
+        private Model parent;
+
+        private Model child;
+
+        @Setup(Level.Invocation)
+        public void copy(Templates templates) {
+            parent = new Model();
+            parent.setReporting(templates.parent.getReporting().clone());
+            child = new Model();
+            child.setReporting(templates.child.getReporting().clone());
+        }
+    }
+
+    /**
+     * The number of the i-th of <code>count</code> elements: the parent elements are numbered from <code>0</code>, the
+     * first half of the child elements are every other parent element and the second half are beyond them.
+     */
+    private static int number(int i, int count, boolean child) {
+        if (!child) {
+            return i;
+        }
+        return i < count / 2 ? 2 * i : count + i;
+    }
+
+    private static Model model(int size, String name, boolean child) {
+        Model model = new Model();
+        model.setGroupId("bench");
+        model.setArtifactId(name);
+        model.setVersion("1.0");
+
+        Build build = new Build();
+        PluginManagement pluginManagement = new PluginManagement();
+        Reporting reporting = new Reporting();
+        DependencyManagement dependencyManagement = new DependencyManagement();
+        for (int i = 0; i < size; i++) {
+            int n = number(i, size, child);
+            build.addPlugin(plugin("plugin-" + n, 2, child));
+            pluginManagement.addPlugin(plugin("managed-" + n, 2, child));
+            reporting.addPlugin(reportPlugin("report-" + n, 2, child));
+            model.addDependency(dependency("dependency-" + n));
+            dependencyManagement.addDependency(dependency("managed-" + n));
+            Repository repository = new Repository();
+            repository.setId("repository-" + n);
+            repository.setUrl("https://repo.example.org/" + n);
+            model.addRepository(repository);
+        }
+        build.addPlugin(plugin("executions", size, child));
+        reporting.addPlugin(reportPlugin("report-sets", size, child));
+        build.setPluginManagement(pluginManagement);
+        model.setBuild(build);
+        model.setReporting(reporting);
+        model.setDependencyManagement(dependencyManagement);
+        return model;
+    }
+
+    private static Plugin plugin(String artifactId, int executions, boolean child) {
+        Plugin plugin = new Plugin();
+        plugin.setGroupId("bench.plugins");
+        plugin.setArtifactId(artifactId);
+        plugin.setVersion("1.0");
+        for (int i = 0; i < executions; i++) {
+            PluginExecution execution = new PluginExecution();
+            execution.setId("execution-" + number(i, executions, child));
+            execution.setPhase("verify");
+            execution.addGoal("goal-" + i);
+            plugin.addExecution(execution);
+        }
+        plugin.addDependency(dependency(child ? "child-dependency" : "parent-dependency"));
+        return plugin;
+    }
+
+    private static ReportPlugin reportPlugin(String artifactId, int reportSets, boolean child) {
+        ReportPlugin plugin = new ReportPlugin();
+        plugin.setGroupId("bench.reports");
+        plugin.setArtifactId(artifactId);
+        for (int i = 0; i < reportSets; i++) {
+            ReportSet reportSet = new ReportSet();
+            reportSet.setId("report-set-" + number(i, reportSets, child));
+            reportSet.addReport("report-" + i);
+            plugin.addReportSet(reportSet);
+        }
+        return plugin;
+    }
+
+    private static Dependency dependency(String artifactId) {
+        Dependency dependency = new Dependency();
+        dependency.setGroupId("bench.dependencies");
+        dependency.setArtifactId(artifactId);
+        dependency.setVersion("1.0");
+        return dependency;
+    }
+
+    @Benchmark
+    public Model assembleModelInheritance(Models models) {
+        assembler.assembleModelInheritance(models.child, models.parent);
+        return models.child;
+    }
+
+    @Benchmark
+    public Build assembleBuildInheritance(Builds builds) {
+        assembler.assembleBuildInheritance(builds.child, builds.parent, true);
+        return builds.child;
+    }
+
+    /**
+     * The merge of report plugins, private to the assembler, through the inheritance of models holding only reports.
+     */
+    @Benchmark
+    public Reporting mergeReportPluginLists(Reports reports) {
+        assembler.assembleModelInheritance(reports.child, reports.parent);
+        return reports.child.getReporting();
+    }
+
+    @Benchmark
+    public Build mergePluginLists(Builds builds) {
+        ModelUtils.mergePluginLists(builds.child, builds.parent, true);
+        return builds.child;
+    }
+}
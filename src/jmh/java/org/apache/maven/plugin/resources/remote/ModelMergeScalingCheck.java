@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugin.resources.remote;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.openjdk.jmh.results.BenchmarkResult;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Runs {@link ModelMergeBenchmark} at growing sizes and fails when the time of a benchmark grows faster than
+ * linearithmically with the size, so that an accidental quadratic merge is noticed. The growth is measured as the
+ * exponent <code>e</code> of <code>time = size^e</code>, fitted by least squares over the median times of several
+ * forks at all the sizes: about 1 for a linear merge, up to 2 for a quadratic one. The bound leaves a wide margin to
+ * the noise of a shared build machine.
+ */
+public final class ModelMergeScalingCheck {
+    static final String[] SIZES = {"100", "1000", "10000"};
+
+    static final int FORKS = 3;
+
+    /**
+     * The maximum exponent, above the one of a linearithmic merge.
+     */
+    static final double MAX_EXPONENT = 1.5;
+
+    private ModelMergeScalingCheck() {}
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .include(ModelMergeBenchmark.class.getName())
+                .param("size", SIZES)
+                .forks(FORKS)
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(3)
+                .measurementTime(TimeValue.seconds(1))
+                .build();
+
+        // median score of the forks by size, for each benchmark
+        Map<String, TreeMap<Integer, Double>> scores = new TreeMap<>();
+        for (RunResult result : new Runner(options).run()) {
+            List<Double> forkScores = new ArrayList<>();
+            for (BenchmarkResult fork : result.getBenchmarkResults()) {
+                forkScores.add(fork.getPrimaryResult().getScore());
+            }
+            scores.computeIfAbsent(result.getParams().getBenchmark(), k -> new TreeMap<>())
+                    .put(Integer.valueOf(result.getParams().getParam("size")), median(forkScores));
+        }
+
+        List<String> exponents = new ArrayList<>();
+        boolean failed = false;
+        for (Map.Entry<String, TreeMap<Integer, Double>> benchmark : scores.entrySet()) {
+            double exponent = exponent(benchmark.getValue());
+            exponents.add(
+                    String.format("%s: %s, growth exponent %.2f", benchmark.getKey(), benchmark.getValue(), exponent));
+            failed |= exponent > MAX_EXPONENT;
+        }
+
+        if (failed) {
+            throw new IllegalStateException("Model merges growing faster than size^" + MAX_EXPONENT + ": " + exponents);
+        }
+    }
+
+    static double median(List<Double> values) {
+        Double[] sorted = values.toArray(new Double[0]);
+        Arrays.sort(sorted);
+        int middle = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2;
+    }
+
+    /**
+     * @return the slope of the least squares line through the logarithms of the times by the logarithms of the sizes
+     */
+    static double exponent(Map<Integer, Double> timeBySize) {
+        double n = timeBySize.size();
+        double sumX = 0;
+        double sumY = 0;
+        double sumXY = 0;
+        double sumXX = 0;
+        for (Map.Entry<Integer, Double> point : timeBySize.entrySet()) {
+            double x = Math.log(point.getKey());
+            double y = Math.log(point.getValue());
+            sumX += x;
+            sumY += y;
+            sumXY += x * y;
+            sumXX += x * x;
+        }
+        return (n * sumXY - sumX * sumY) / (n * sumXX - sumX * sumX);
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugin.resources.remote;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import org.apache.maven.plugin.resources.remote.io.xpp3.RemoteResourcesBundleXpp3Writer;
+import org.apache.maven.plugin.resources.remote.stub.MavenProjectResourcesStub;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Environment of the benchmarks: the Plexus container, stub projects and local repository of
+ * {@link RemoteResourcesMojoTest}, used outside of JUnit.
+ */
+class MojoBenchmarkSupport extends RemoteResourcesMojoTest {
+    static final String LOCAL_REPO = "target/local-repo/";
+
+    /**
+     * Starts the Plexus container the mojos are looked up from.
+     */
+    void start() throws Exception {
+        setUp();
+    }
+
+    void stop() {
+        getContainer().dispose();
+    }
+
+    /**
+     * Sets a field of a mojo, as the configuration of its execution would.
+     */
+    void configure(Object mojo, String field, Object value) throws IllegalAccessException {
+        setVariableValueToObject(mojo, field, value);
+    }
+
+    MavenProjectResourcesStub createProject(String id) throws Exception {
+        MavenProjectResourcesStub project = createTestProject(id);
+        setupDefaultProject(project);
+        return project;
+    }
+
+    ProcessRemoteResourcesMojo createProcessMojo(MavenProject project, List<String> bundles) throws Exception {
+        return lookupProcessMojoWithSettings(project, new ArrayList<>(bundles));
+    }
+
+    /**
+     * Installs in the local repository a resource bundle holding the given resources, in order, encoded in UTF-8.
+     *
+     * @return the jar of the bundle
+     */
+    File installBundle(String groupId, String artifactId, String version, Map<String, byte[]> resources)
+            throws IOException {
+        File jar = new File(LOCAL_REPO + groupId.replace('.', '/') + '/' + artifactId + '/' + version + '/'
+                + artifactId + '-' + version + ".jar");
+        jar.getParentFile().mkdirs();
+
+        RemoteResourcesBundle bundle = new RemoteResourcesBundle();
+        bundle.setSourceEncoding("UTF-8");
+        bundle.setRemoteResources(new ArrayList<>(resources.keySet()));
+        ByteArrayOutputStream manifest = new ByteArrayOutputStream();
+        new RemoteResourcesBundleXpp3Writer().write(manifest, bundle);
+
+        try (OutputStream out = Files.newOutputStream(jar.toPath());
+                JarOutputStream jarOut = new JarOutputStream(out)) {
+            jarOut.putNextEntry(new ZipEntry(BundleRemoteResourcesMojo.RESOURCES_MANIFEST));
+            manifest.writeTo(jarOut);
+            jarOut.closeEntry();
+            for (Map.Entry<String, byte[]> resource : resources.entrySet()) {
+                jarOut.putNextEntry(new ZipEntry(resource.getKey()));
+                jarOut.write(resource.getValue());
+                jarOut.closeEntry();
+            }
+        }
+        return jar;
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugin.resources.remote;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.model.Organization;
+import org.apache.maven.plugin.resources.remote.stub.MavenProjectResourcesStub;
+import org.apache.maven.plugin.testing.SilentLog;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.FileUtils;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the dependency projects made available to templates, on a local repository of generated POMs. Each
+ * dependency inherits from one of ten group parents, themselves children of a common root, and one in seven declares
+ * its own organization.
+ * <p>
+ * The projects are built in a new session for each invocation, so that the session caches start empty, with one of
+ * the building modes: <code>serial</code>, <code>parallel</code> with four threads, <code>metadata</code> only, or
+ * <code>cached</code> in a persistent metadata cache filled by the first invocations. The heap retained by the
+ * projects and the session caches is reported as the <code>retainedBytes</code> counter.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ProjectsBenchmark {
+    private static final int GROUPS = 10;
+
+    /**
+     * The local repository and the project depending on all its artifacts.
+     */
+    @State(Scope.Benchmark)
+    public static class Repository {
+        @Param({"100", "1000", "10000"})
+        public int dependencies;
+
+        private MojoBenchmarkSupport support;
+
+        private MavenProjectResourcesStub project;
+
+        private File metadataCache;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            support = new MojoBenchmarkSupport();
+            support.start();
+
+            project = support.createProject("projects-benchmark");
+            metadataCache = new File(project.getBuild().getDirectory(), "metadata-cache");
+            FileUtils.deleteDirectory(metadataCache);
+
+            support.installPom(
+                    "bench.parent",
+                    "root",
+                    "1",
+                    "<project><modelVersion>4.0.0</modelVersion><groupId>bench.parent</groupId>"
+                            + "<artifactId>root</artifactId><version>1</version><packaging>pom</packaging>"
+                            + "<url>https://example.org/</url><inceptionYear>2001</inceptionYear>"
+                            + "<organization><name>Benchmark Foundation</name></organization>"
+                            + "<licenses><license><name>Apache-2.0</name></license></licenses></project>");
+            for (int g = 0; g < GROUPS; g++) {
+                String organization = g % 2 == 1 ? "<organization><name>Group " + g + "</name></organization>" : "";
+                support.installPom(
+                        "bench.parent",
+                        "group-" + g,
+                        "1",
+                        "<project><modelVersion>4.0.0</modelVersion><parent><groupId>bench.parent</groupId>"
+                                + "<artifactId>root</artifactId><version>1</version><relativePath/></parent>"
+                                + "<artifactId>group-" + g + "</artifactId><packaging>pom</packaging>"
+                                + "<description>Group " + g + " of ${project.artifactId}</description>"
+                                + organization + "</project>");
+            }
+
+            Set<Artifact> artifacts = new LinkedHashSet<>();
+            for (int i = 0; i < dependencies; i++) {
+                int g = i % GROUPS;
+                String organization =
+                        i % 7 == 0 ? "<organization><name>Vendor " + i % 13 + "</name></organization>" : "";
+                artifacts.add(support.installPom(
+                        "bench.deps.g" + g,
+                        "dep-" + i,
+                        "1.0",
+                        "<project><modelVersion>4.0.0</modelVersion><parent><groupId>bench.parent</groupId>"
+                                + "<artifactId>group-" + g + "</artifactId><version>1</version><relativePath/></parent>"
+                                + "<groupId>bench.deps.g" + g + "</groupId><artifactId>dep-" + i + "</artifactId>"
+                                + "<version>1.0</version><name>Dependency " + i + "</name>" + organization
+                                + "</project>"));
+            }
+            project.setArtifacts(artifacts);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            support.stop();
+        }
+
+        /**
+         * @return a mojo of a new session, configured for the given building mode
+         */
+        ProcessRemoteResourcesMojo createMojo(String mode) throws Exception {
+            ProcessRemoteResourcesMojo mojo = support.createProcessMojo(project, Collections.<String>emptyList());
+            mojo.setLog(new SilentLog());
+            mojo.encoding = "UTF-8";
+            support.configure(mojo, "projectBuildThreads", "parallel".equals(mode) ? 4 : 1);
+            if ("metadata".equals(mode)) {
+                support.configure(mojo, "dependencyModelResolution", "metadata");
+            } else if ("cached".equals(mode)) {
+                support.configure(mojo, "dependencyMetadataCache", metadataCache);
+            }
+            // without bundles, only prepares the mojo: supplements and metadata cache
+            mojo.execute();
+            return mojo;
+        }
+    }
+
+    /**
+     * A new session for each invocation.
+     */
+    @State(Scope.Thread)
+    public static class Session {
+        @Param({"serial", "parallel", "metadata", "cached"})
+        public String mode;
+
+        private ProcessRemoteResourcesMojo mojo;
+
+        private List<MavenProject> projects;
+
+        @Setup(Level.Invocation)
+        public void setUp(Repository repository) throws Exception {
+            mojo = repository.createMojo(mode);
+        }
+
+        @TearDown(Level.Invocation)
+        public void tearDown(RetainedHeap heap) {
+            long used = RetainedHeap.usedHeap();
+            projects = null;
+            mojo = null;
+            heap.retainedBytes = used - RetainedHeap.usedHeap();
+        }
+    }
+
+    /**
+     * Heap retained by the built projects, measured outside of the timed invocation as the heap freed once they are
+     * released.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class RetainedHeap {
+        /**
+         * The bytes retained by the projects and the session caches after the last invocation.
+         */
+        public long retainedBytes;
+
+        static long usedHeap() {
+            System.gc();
+            System.gc();
+            return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        }
+    }
+
+    /**
+     * Projects built once, with the <code>metadata</code> mode, for sorting.
+     */
+    @State(Scope.Thread)
+    public static class Built {
+        private ProcessRemoteResourcesMojo mojo;
+
+        private List<MavenProject> projects;
+
+        @Setup(Level.Trial)
+        public void setUp(Repository repository) throws Exception {
+            mojo = repository.createMojo("metadata");
+            projects = mojo.getProjects();
+        }
+    }
+
+    /**
+     * Builds the projects; the heap state is a parameter so that its counter is reported with this benchmark.
+     */
+    @Benchmark
+    public List<MavenProject> getProjects(Session session, RetainedHeap heap) {
+        session.projects = session.mojo.getProjects();
+        return session.projects;
+    }
+
+    @Benchmark
+    public Map<Organization, List<MavenProject>> getProjectsSortedByOrganization(Built built) {
+        return built.mojo.getProjectsSortedByOrganization(built.projects);
+    }
+}
@@ -0,0 +1,269 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugin.resources.remote;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.plugin.resources.remote.io.xpp3.RemoteResourcesBundleXpp3Reader;
+import org.apache.maven.plugin.resources.remote.stub.MavenProjectResourcesStub;
+import org.apache.maven.plugin.testing.SilentLog;
+import org.apache.velocity.VelocityContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks of the processing of resource bundles, on generated bundles of {@link #resources} resources each, a
+ * {@link #templateRatio} of them being Velocity templates and one in ten having an appended resource. The whole
+ * processing is measured, then each of its steps on its own.
+ * <p>
+ * The outputs are generated once before the measurements, so the whole processing is measured as on a rebuild of an
+ * unchanged project, where the outputs are rendered again but not rewritten.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RenderBenchmark {
+    private static final String TEMPLATE = "Resource ${resource} of ${project.name} ${project.version}\n"
+            + "Copyright ${projectTimespan} The Apache Software Foundation\n"
+            + "#foreach( $line in [1..20] )\n"
+            + "line $line of ${project.groupId}:${project.artifactId}\n"
+            + "#end\n";
+
+    @Param({"1", "10", "50"})
+    public int bundles;
+
+    @Param({"10", "100"})
+    public int resources;
+
+    @Param({"0.0", "0.5", "1.0"})
+    public double templateRatio;
+
+    private MojoBenchmarkSupport support;
+
+    private ProcessRemoteResourcesMojo mojo;
+
+    private final List<File> bundleFiles = new ArrayList<>();
+
+    private RemoteResourcesClassLoader classLoader;
+
+    private VelocityContext context;
+
+    private TemplateCache templateCache;
+
+    private final List<BundleIndex.Entry> templates = new ArrayList<>();
+
+    private final List<BundleIndex.Entry> statics = new ArrayList<>();
+
+    private final List<File> appended = new ArrayList<>();
+
+    private File copyDirectory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        support = new MojoBenchmarkSupport();
+        support.start();
+
+        MavenProjectResourcesStub project = support.createProject("render-benchmark");
+        File appendedDirectory = new File(project.getBasedir(), "src/main/appended-resources");
+        copyDirectory = new File(project.getBuild().getDirectory(), "copy-benchmark");
+
+        List<String> coordinates = new ArrayList<>();
+        for (int b = 0; b < bundles; b++) {
+            Map<String, byte[]> content = new LinkedHashMap<>();
+            int templateCount = (int) Math.round(resources * templateRatio);
+            for (int r = 0; r < resources; r++) {
+                String resource = "bundle-" + b + "/resource-" + r + ".txt";
+                if (r < templateCount) {
+                    String template = TEMPLATE.replace("${resource}", resource);
+                    content.put(resource + ".vm", template.getBytes(StandardCharsets.UTF_8));
+                } else {
+                    content.put(resource, staticContent(resource));
+                }
+                if (r % 10 == 0) {
+                    appended.add(write(new File(appendedDirectory, resource), "appended to " + resource + "\n"));
+                } else if (r % 10 == 5) {
+                    appended.add(write(new File(appendedDirectory, resource + ".vm"), "appended to ${project.name}\n"));
+                }
+            }
+            bundleFiles.add(support.installBundle("bench.render", "bundle-" + b, "1.0", content));
+            coordinates.add("bench.render:bundle-" + b + ":1.0");
+        }
+
+        mojo = support.createProcessMojo(project, coordinates);
+        mojo.setLog(new SilentLog());
+        mojo.encoding = "UTF-8";
+        support.configure(mojo, "appendedResourcesDirectory", appendedDirectory);
+        // generates the outputs, and leaves the mojo ready for processResourceBundles
+        mojo.execute();
+
+        classLoader = openBundles();
+        context = mojo.buildVelocityContext();
+        templateCache = TemplateCache.of(mojo.mavenSession);
+        for (Enumeration<URL> e = classLoader.getResources(BundleRemoteResourcesMojo.RESOURCES_MANIFEST);
+                e.hasMoreElements(); ) {
+            try (InputStream in = e.nextElement().openStream()) {
+                for (String resource : new RemoteResourcesBundleXpp3Reader().read(in).getRemoteResources()) {
+                    BundleIndex.Entry entry = classLoader.getIndex().get(resource);
+                    (resource.endsWith(".vm") ? templates : statics).add(entry);
+                }
+            }
+        }
+    }
+
+    private static byte[] staticContent(String resource) {
+        StringBuilder content = new StringBuilder();
+        for (int line = 0; line < 40; line++) {
+            content.append("line ").append(line).append(" of the static resource ").append(resource).append('\n');
+        }
+        return content.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static File write(File file, String content) throws IOException {
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private RemoteResourcesClassLoader openBundles() throws IOException {
+        RemoteResourcesClassLoader loader = new RemoteResourcesClassLoader(null);
+        for (File bundleFile : bundleFiles) {
+            loader.addURL(bundleFile.toURI().toURL());
+        }
+        loader.getIndex();
+        return loader;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        classLoader.close();
+        support.stop();
+    }
+
+    /**
+     * The whole processing of the bundles: manifests, rendering, copies and appended resources.
+     */
+    @Benchmark
+    public void processResourceBundles() throws Exception {
+        Thread thread = Thread.currentThread();
+        ClassLoader origLoader = thread.getContextClassLoader();
+        thread.setContextClassLoader(classLoader);
+        try {
+            mojo.processResourceBundles(classLoader, context);
+        } finally {
+            thread.setContextClassLoader(origLoader);
+        }
+    }
+
+    /**
+     * Opening and indexing the bundles, then reading their manifests.
+     */
+    @Benchmark
+    public void discoverManifests(Blackhole blackhole) throws Exception {
+        RemoteResourcesBundleXpp3Reader reader = new RemoteResourcesBundleXpp3Reader();
+        try (RemoteResourcesClassLoader loader = openBundles()) {
+            for (Enumeration<URL> e = loader.getResources(BundleRemoteResourcesMojo.RESOURCES_MANIFEST);
+                    e.hasMoreElements(); ) {
+                try (InputStream in = e.nextElement().openStream()) {
+                    blackhole.consume(reader.read(in));
+                }
+            }
+        }
+    }
+
+    /**
+     * Merging the templates, parsed once by the template cache, in memory.
+     */
+    @Benchmark
+    public void mergeTemplates(Blackhole blackhole) throws Exception {
+        Thread thread = Thread.currentThread();
+        ClassLoader origLoader = thread.getContextClassLoader();
+        thread.setContextClassLoader(classLoader);
+        try {
+            for (BundleIndex.Entry template : templates) {
+                StringWriter writer = new StringWriter();
+                templateCache.get(template, "UTF-8").merge(context, writer);
+                blackhole.consume(writer.getBuffer().length());
+            }
+        } finally {
+            thread.setContextClassLoader(origLoader);
+        }
+    }
+
+    /**
+     * Copying the static resources out of their bundles, each to a file deleted beforehand.
+     */
+    @Benchmark
+    public void copyStatics() throws IOException {
+        for (BundleIndex.Entry entry : statics) {
+            File target = new File(copyDirectory, entry.getName());
+            if (!target.delete()) {
+                target.getParentFile().mkdirs();
+            }
+            entry.copyTo(target);
+        }
+    }
+
+    /**
+     * Reading the appended resources, and merging the appended templates, in memory.
+     */
+    @Benchmark
+    public void appendResources(Blackhole blackhole) throws IOException {
+        for (File file : appended) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            if (file.getName().endsWith(".vm")) {
+                try (Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+                    templateCache.get(file, StandardCharsets.UTF_8).merge(context, writer);
+                }
+            } else {
+                Files.copy(file.toPath(), out);
+            }
+            blackhole.consume(out.size());
+        }
+    }
+}
@@ -18,15 +18,15 @@
  */
 package org.apache.maven.plugin.resources.remote;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileOutputStream;
-import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
-import java.io.Reader;
 import java.io.StringReader;
+import java.io.StringWriter;
 import java.io.Writer;
 import java.net.MalformedURLException;
 import java.net.URL;
@@ -37,16 +37,25 @@ import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.maven.RepositoryUtils;
 import org.apache.maven.archiver.MavenArchiver;
@@ -58,10 +67,11 @@ import org.apache.maven.model.Organization;
 import org.apache.maven.model.Resource;
 import org.apache.maven.model.building.ModelBuildingRequest;
 import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.apache.maven.model.io.xpp3.MavenXpp3Writer;
 import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecution;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.resources.remote.io.xpp3.RemoteResourcesBundleXpp3Reader;
-import org.apache.maven.plugin.resources.remote.io.xpp3.SupplementalDataModelXpp3Reader;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.project.DefaultProjectBuildingRequest;
 import org.apache.maven.project.MavenProject;
@@ -80,19 +90,16 @@ import org.apache.maven.shared.filtering.MavenFileFilter;
 import org.apache.maven.shared.filtering.MavenFileFilterRequest;
 import org.apache.maven.shared.filtering.MavenFilteringException;
 import org.apache.velocity.VelocityContext;
-import org.apache.velocity.app.Velocity;
-import org.apache.velocity.app.VelocityEngine;
 import org.apache.velocity.exception.MethodInvocationException;
 import org.apache.velocity.exception.ParseErrorException;
 import org.apache.velocity.exception.ResourceNotFoundException;
 import org.apache.velocity.exception.VelocityException;
-import org.apache.velocity.runtime.resource.loader.ClasspathResourceLoader;
+import org.codehaus.plexus.resource.PlexusResource;
 import org.codehaus.plexus.resource.ResourceManager;
 import org.codehaus.plexus.resource.loader.FileResourceLoader;
 import org.codehaus.plexus.util.FileUtils;
 import org.codehaus.plexus.util.IOUtil;
 import org.codehaus.plexus.util.StringUtils;
-import org.codehaus.plexus.util.io.CachingOutputStream;
 import org.codehaus.plexus.util.xml.Xpp3Dom;
 import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
 import org.eclipse.aether.RepositorySystem;
@@ -250,12 +257,12 @@ public abstract class AbstractProcessRemoteResourcesMojo extends AbstractMojo {
     protected boolean includeProjectProperties = false;
 
     /**
-     * This parameter is not used. It is kept for backward compatibility only.
+     * Size in bytes up to which a generated resource is buffered in memory and compared with the existing file, to
+     * leave the file untouched when it did not change. Larger resources are streamed to a temporary file while being
+     * hashed, which then replaces the existing file or is discarded when identical, so that memory use stays bounded.
      *
-     * @deprecated not used anymore
      * @since 1.6
      */
-    @Deprecated
     @Parameter(defaultValue = "5242880")
     protected int velocityFilterInMemoryThreshold = 5 * 1024 * 1024;
 
@@ -354,10 +361,93 @@ public abstract class AbstractProcessRemoteResourcesMojo extends AbstractMojo {
     @Parameter(defaultValue = "false")
     private boolean useProjectFiles;
 
+    /**
+     * Number of threads used to build the dependency projects made available to templates as <code>projects</code>.
+     * When not set, the degree of concurrency of the build (<code>-T</code>) is used; <code>1</code> builds the
+     * projects one after another. The threads are shared by all the modules of the build, the first module building
+     * projects in parallel sets their number.
+     *
+     * @since 3.3.1
+     */
+    @Parameter(property = "remoteresources.projectBuildThreads")
+    private int projectBuildThreads;
+
+    /**
+     * Directory of a persistent cache of the dependency metadata used by templates. When set, the name, url,
+     * description, inception year, organization and licenses of every dependency project are stored there, together
+     * with a checksum of its POM and parent POMs and of the properties their expressions refer to, and later builds use
+     * them instead of building the project again as long as these are unchanged. Templates then only see these fields
+     * in <code>projects</code>.
+     * <p>
+     * The directory can be shared by concurrent builds, for example
+     * <code>${settings.localRepository}/.cache/remote-resources</code>.
+     *
+     * @since 3.3.1
+     */
+    @Parameter(property = "remoteresources.dependencyMetadataCache")
+    private File dependencyMetadataCache;
+
+    /**
+     * Maximum number of dependencies kept in the <code>dependencyMetadataCache</code>, the least recently used ones
+     * are evicted first.
+     *
+     * @since 3.3.1
+     */
+    @Parameter(property = "remoteresources.dependencyMetadataCacheSize", defaultValue = "10000")
+    private int dependencyMetadataCacheSize = 10000;
+
+    /**
+     * How the dependency projects made available to templates as <code>projects</code> are resolved:
+     * <ul>
+     * <li><code>full</code>: the projects are built by Maven, so templates can use any of their data.</li>
+     * <li><code>metadata</code>: only the POMs of the dependencies and of their parents are read, to inherit and
+     * interpolate the name, url, description, inception year, organization and licenses. This is much cheaper, but
+     * templates only see these fields and profiles are not activated. Projects with expressions that cannot be
+     * resolved this way are fully built.</li>
+     * </ul>
+     *
+     * @since 3.3.1
+     */
+    @Parameter(property = "remoteresources.dependencyModelResolution", defaultValue = "full")
+    private String dependencyModelResolution = "full";
+
+    /**
+     * Number of threads used to generate the resources of the bundles. With more than one thread, resources are
+     * generated concurrently and each template gets its own Velocity context, so that values set by one are not seen
+     * by the others.
+     *
+     * @since 3.3.1
+     */
+    @Parameter(property = "remoteresources.renderThreads", defaultValue = "1")
+    private int renderThreads = 1;
+
+    /**
+     * Skip the processing when none of its inputs changed since the previous build and its outputs are still there:
+     * the output directory is only attached to the project again. The inputs are the resource bundles, the plugin
+     * configuration, the project model, the filtered dependencies, the supplemental models and the content of the
+     * <code>appendedResourcesDirectory</code> and of the project resource directories.
+     * <p>
+     * When some of these inputs changed, only the resources whose own inputs changed are generated again: the bundle
+     * resource and the resources it includes, its local override and appended resource, and the values of the
+     * Velocity context it read. Resources reading values that cannot be compared, like <code>locator</code>, are
+     * always generated again, and each template gets its own context, so that values set by one are not seen by the
+     * others.
+     *
+     * @since 3.3.1
+     */
+    @Parameter(property = "remoteresources.incremental", defaultValue = "false")
+    private boolean incremental;
+
+    /**
+     * The current mojo execution, whose configuration is part of the <code>incremental</code> fingerprint.
+     */
+    @Parameter(defaultValue = "${mojoExecution}", readonly = true)
+    private MojoExecution mojoExecution;
+
     /**
      * Map of artifacts to supplemental project object models.
      */
-    private Map<String, Model> supplementModels;
+    private SupplementIndex supplementModels;
 
     /**
      * Merges supplemental data model with artifact metadata. Useful when processing artifacts with
@@ -365,7 +455,28 @@ public abstract class AbstractProcessRemoteResourcesMojo extends AbstractMojo {
      */
     private final ModelInheritanceAssembler inheritanceAssembler = new ModelInheritanceAssembler();
 
-    private VelocityEngine velocity;
+    private TemplateCache templateCache;
+
+    private ProjectFiles projectFiles;
+
+    private DependencyMetadataCache metadataCache;
+
+    /**
+     * State of the current processing in <code>incremental</code> mode, <code>null</code> otherwise.
+     */
+    private IncrementalState incrementalState;
+
+    /**
+     * State of the previous processing in <code>incremental</code> mode, <code>null</code> if there is none.
+     */
+    private IncrementalState previousState;
+
+    /**
+     * Signatures of the expensive Velocity context values, computed once for the incremental rendering.
+     */
+    private String projectSignature;
+
+    private String dependenciesSignature;
 
     protected final RepositorySystem repoSystem;
 
@@ -426,6 +537,11 @@ public abstract class AbstractProcessRemoteResourcesMojo extends AbstractMojo {
 
         configureLocator();
 
+        if (dependencyMetadataCache != null) {
+            metadataCache = DependencyMetadataCache.of(
+                    mavenSession, dependencyMetadataCache.toPath(), dependencyMetadataCacheSize);
+        }
+
         ClassLoader origLoader = Thread.currentThread().getContextClassLoader();
         try {
             validate();
@@ -433,50 +549,219 @@ public abstract class AbstractProcessRemoteResourcesMojo extends AbstractMojo {
             List<File> resourceBundleArtifacts = downloadBundles(resourceBundles);
             supplementModels = loadSupplements(supplementalModels);
 
-            ClassLoader classLoader = initalizeClassloader(resourceBundleArtifacts);
+            if (incremental) {
+                String fingerprint = computeFingerprint(resourceBundleArtifacts);
+                previousState = loadIncrementalState();
+                if (isUpToDate(fingerprint)) {
+                    getLog().info("Remote resources are up to date, skipping processing");
+                    attachOutputDirectory();
+                    return;
+                }
+                // a failed processing must not leave the state of the previous one behind
+                getIncrementalStateFile().delete();
+                incrementalState = new IncrementalState(fingerprint);
+            }
 
-            Thread.currentThread().setContextClassLoader(classLoader);
+            try (RemoteResourcesClassLoader classLoader = initalizeClassloader(resourceBundleArtifacts)) {
+                // the classpath resource loader of Velocity reads the templates through the bundle index
+                Thread.currentThread().setContextClassLoader(classLoader);
 
-            velocity = new VelocityEngine();
-            velocity.setProperty("resource.loaders", "classpath");
-            velocity.setProperty("resource.loader.classpath.class", ClasspathResourceLoader.class.getName());
-            velocity.init();
+                templateCache = TemplateCache.of(mavenSession);
 
-            VelocityContext context = buildVelocityContext();
+                VelocityContext context = buildVelocityContext();
 
-            processResourceBundles(classLoader, context);
+                processResourceBundles(classLoader, context);
 
-            if (outputDirectory.exists()) {
-                // ----------------------------------------------------------------------------
-                // Push our newly generated resources directory into the MavenProject so that
-                // these resources can be picked up by the process-resources phase.
-                // ----------------------------------------------------------------------------
-                Resource resource = new Resource();
-                resource.setDirectory(outputDirectory.getAbsolutePath());
-                // MRRESOURCES-61 handle main and test resources separately
-                if (attachToMain) {
-                    project.getResources().add(resource);
-                }
-                if (attachToTest) {
-                    project.getTestResources().add(resource);
-                }
+                getLog().debug("Template cache: " + templateCache.getHits() + " hits, " + templateCache.getMisses()
+                        + " misses");
+            } catch (IOException e) {
+                throw new MojoExecutionException("Error closing the resource bundles", e);
+            }
 
-                // ----------------------------------------------------------------------------
-                // Write out archiver dot file
-                // ----------------------------------------------------------------------------
-                try {
-                    File dotFile = new File(project.getBuild().getDirectory(), ".plxarc");
-                    FileUtils.mkdir(dotFile.getParentFile().getAbsolutePath());
-                    FileUtils.fileWrite(dotFile.getAbsolutePath(), outputDirectory.getName());
-                } catch (IOException e) {
-                    throw new MojoExecutionException("Error creating dot file for archiving instructions.", e);
-                }
+            attachOutputDirectory();
+
+            if (incrementalState != null) {
+                saveIncrementalState();
             }
         } finally {
             Thread.currentThread().setContextClassLoader(origLoader);
         }
     }
 
+    /**
+     * Pushes the output directory into the project so that its resources are picked up by the process-resources phase,
+     * and writes the archiver dot file.
+     */
+    private void attachOutputDirectory() throws MojoExecutionException {
+        if (!outputDirectory.exists()) {
+            return;
+        }
+
+        // ----------------------------------------------------------------------------
+        // Push our newly generated resources directory into the MavenProject so that
+        // these resources can be picked up by the process-resources phase.
+        // ----------------------------------------------------------------------------
+        Resource resource = new Resource();
+        resource.setDirectory(outputDirectory.getAbsolutePath());
+        // MRRESOURCES-61 handle main and test resources separately
+        if (attachToMain) {
+            project.getResources().add(resource);
+        }
+        if (attachToTest) {
+            project.getTestResources().add(resource);
+        }
+
+        // ----------------------------------------------------------------------------
+        // Write out archiver dot file
+        // ----------------------------------------------------------------------------
+        try {
+            File dotFile = new File(project.getBuild().getDirectory(), ".plxarc");
+            FileUtils.mkdir(dotFile.getParentFile().getAbsolutePath());
+            FileUtils.fileWrite(dotFile.getAbsolutePath(), outputDirectory.getName());
+        } catch (IOException e) {
+            throw new MojoExecutionException("Error creating dot file for archiving instructions.", e);
+        }
+    }
+
+    private File getIncrementalStateFile() {
+        String executionId = mojoExecution != null ? mojoExecution.getExecutionId() : "default";
+        return new File(
+                project.getBuild().getDirectory(),
+                "maven-status/maven-remote-resources-plugin/" + executionId + ".properties");
+    }
+
+    /**
+     * @return the fingerprint of all the inputs of the processing, for the <code>incremental</code> mode
+     */
+    private String computeFingerprint(List<File> resourceBundleArtifacts) throws MojoExecutionException {
+        Fingerprint fingerprint = new Fingerprint();
+        try {
+            if (mojoExecution != null) {
+                if (mojoExecution.getMojoDescriptor() != null) {
+                    fingerprint.add(mojoExecution.getMojoDescriptor().getId());
+                }
+                fingerprint.add(String.valueOf(mojoExecution.getConfiguration()));
+            }
+            // evaluated values of the parameters used by the templates
+            fingerprint.add(outputDirectory.getAbsolutePath());
+            fingerprint.add(encoding);
+            fingerprint.add(new TreeMap<>(properties).toString());
+            fingerprint.add(String.valueOf(includeProjectProperties));
+            fingerprint.add(getPresentYear());
+
+            for (File bundle : resourceBundleArtifacts) {
+                fingerprint.addFile(bundle);
+            }
+
+            // the model holds the project properties
+            fingerprint.add(getProjectSignature());
+            fingerprint.add(getDependenciesSignature());
+
+            // the local files overriding the ones of the bundles are tracked individually, see IncrementalState
+            fingerprint.addDirectory(appendedResourcesDirectory);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Error computing the fingerprint of the remote resources inputs", e);
+        }
+        return fingerprint.hash();
+    }
+
+    /**
+     * @return a hash of the project model
+     */
+    private synchronized String getProjectSignature() throws IOException {
+        if (projectSignature == null) {
+            StringWriter model = new StringWriter();
+            new MavenXpp3Writer().write(model, project.getModel());
+            projectSignature = new Fingerprint().add(model.toString()).hash();
+        }
+        return projectSignature;
+    }
+
+    /**
+     * @return a hash of what the dependency projects are computed from, without computing them
+     */
+    private synchronized String getDependenciesSignature() throws IOException {
+        if (dependenciesSignature == null) {
+            Fingerprint fingerprint = new Fingerprint();
+            fingerprint.add(dependencyModelResolution);
+
+            List<String> dependencies = new ArrayList<>();
+            for (Artifact artifact : getFilteredArtifacts()) {
+                dependencies.add(artifact.getId());
+            }
+            Collections.sort(dependencies);
+            for (String dependency : dependencies) {
+                fingerprint.add(dependency);
+            }
+
+            for (SupplementIndex.Entry supplement : supplementModels.getEntries()) {
+                StringWriter supplementModel = new StringWriter();
+                new MavenXpp3Writer().write(supplementModel, supplement.getModel());
+                fingerprint.add(supplement.getVersionRange()).add(supplementModel.toString());
+            }
+            dependenciesSignature = fingerprint.hash();
+        }
+        return dependenciesSignature;
+    }
+
+    private IncrementalState loadIncrementalState() {
+        try {
+            return IncrementalState.load(getIncrementalStateFile());
+        } catch (IOException e) {
+            getLog().debug("No previous remote resources state: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Checks the state of the previous processing and, when up to date, adds its resource excludes to the project
+     * again.
+     *
+     * @return <code>true</code> if the previous processing had the same fingerprint and neither the local files it
+     *         used nor its outputs changed since
+     */
+    private boolean isUpToDate(String fingerprint) {
+        IncrementalState previous = previousState;
+        if (previous == null) {
+            return false;
+        }
+
+        if (!fingerprint.equals(previous.getFingerprint())) {
+            getLog().debug("Remote resources inputs changed since the previous build");
+            return false;
+        }
+        File changed = previous.findChange(outputDirectory);
+        if (changed != null) {
+            getLog().debug("Remote resources file " + changed + " changed since the previous build");
+            return false;
+        }
+
+        for (String[] exclude : previous.getExcludes()) {
+            addResourceExclude(exclude[0], exclude[1]);
+        }
+        return true;
+    }
+
+    private void addResourceExclude(String directory, String name) {
+        for (Resource resource : project.getResources()) {
+            if (directory.equals(resource.getDirectory())) {
+                synchronized (resource) {
+                    resource.addExclude(name);
+                }
+            }
+        }
+    }
+
+    private void saveIncrementalState() {
+        File stateFile = getIncrementalStateFile();
+        try {
+            incrementalState.addOutputs(outputDirectory);
+            incrementalState.save(stateFile);
+        } catch (IOException e) {
+            getLog().warn("Unable to save the remote resources state to " + stateFile + ": " + e.getMessage());
+        }
+    }
+
     private void configureLocator() throws MojoExecutionException {
         if (supplementalModelArtifacts != null && !supplementalModelArtifacts.isEmpty()) {
             List<File> artifacts = downloadBundles(supplementalModelArtifacts);
@@ -507,6 +792,48 @@ public abstract class AbstractProcessRemoteResourcesMojo extends AbstractMojo {
     protected List<MavenProject> getProjects() {
         List<MavenProject> projects = new ArrayList<>();
 
+        List<Artifact> artifactList = new ArrayList<>(getFilteredArtifacts());
+        for (Artifact artifact : artifactList) {
+            if (artifact.isSnapshot()) {
+                artifact.setVersion(artifact.getBaseVersion());
+            }
+        }
+
+        List<MavenProject> builtProjects = buildProjects(artifactList);
+
+        for (int i = 0; i < artifactList.size(); i++) {
+            Artifact artifact = artifactList.get(i);
+            MavenProject p = builtProjects.get(i);
+            if (p == null) {
+                continue;
+            }
+
+            Model supplement = supplementModels.find(
+                    p.getModel().getGroupId(), p.getModel().getArtifactId(), artifact.getVersion());
+
+            if (supplement != null) {
+                MavenProject supplementedProject = new SupplementedProject(p, supplement, artifact);
+                projects.add(supplementedProject);
+                getLog().debug("Adding project with groupId [" + supplementedProject.getGroupId() + "] (supplemented)");
+            } else {
+                projects.add(p);
+                getLog().debug("Adding project with groupId [" + p.getGroupId() + "]");
+            }
+        }
+        projects.sort(new ProjectComparator());
+
+        if (getLog().isDebugEnabled()) {
+            DependencyProjectCache cache = DependencyProjectCache.of(mavenSession);
+            getLog().debug("Dependency project cache: " + cache.getHits() + " hits, " + cache.getMisses()
+                    + " misses in this session");
+        }
+        return projects;
+    }
+
+    /**
+     * @return the dependencies selected by the include and exclude parameters
+     */
+    private Set<Artifact> getFilteredArtifacts() {
         // add filters in well known order, least specific to most specific
         FilterArtifacts filter = new FilterArtifacts();
 
@@ -527,49 +854,173 @@ public abstract class AbstractProcessRemoteResourcesMojo extends AbstractMojo {
         }
 
         getLog().debug("PROJECTS: " + artifacts);
+        return artifacts;
+    }
 
-        for (Artifact artifact : artifacts) {
-            if (artifact.isSnapshot()) {
-                artifact.setVersion(artifact.getBaseVersion());
+    /**
+     * Builds the projects of the given artifacts, serially or with up to <code>projectBuildThreads</code> threads.
+     *
+     * @return the built projects, in the order of the artifacts, with <code>null</code> for the invalid ones
+     */
+    private List<MavenProject> buildProjects(List<Artifact> artifacts) {
+        int threads =
+                projectBuildThreads > 0 ? projectBuildThreads : mavenSession.getRequest().getDegreeOfConcurrency();
+        threads = Math.min(threads, artifacts.size());
+
+        if (threads <= 1) {
+            List<MavenProject> result = new ArrayList<>(artifacts.size());
+            for (Artifact artifact : artifacts) {
+                result.add(buildProject(artifact));
+            }
+            return result;
+        }
+
+        getLog().debug("Building " + artifacts.size() + " dependency projects with " + threads + " threads");
+
+        ExecutorService executor = DependencyProjectCache.of(mavenSession).getExecutor(threads);
+        Map<Future<MavenProject>, Integer> indexes = new HashMap<>();
+        try {
+            CompletionService<MavenProject> completionService = new ExecutorCompletionService<>(executor);
+            for (int i = 0; i < artifacts.size(); i++) {
+                Artifact artifact = artifacts.get(i);
+                indexes.put(completionService.submit(() -> buildProject(artifact)), i);
+            }
+
+            MavenProject[] result = new MavenProject[artifacts.size()];
+            for (int i = 0; i < artifacts.size(); i++) {
+                // take results as they complete, so that a failure is noticed as soon as it happens
+                Future<MavenProject> future = completionService.take();
+                result[indexes.get(future)] = future.get();
+            }
+            return Arrays.asList(result);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while building dependency projects", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Error building dependency projects: " + e.getCause(), e.getCause());
+        } finally {
+            // cancels the builds still pending when one failed
+            for (Future<MavenProject> future : indexes.keySet()) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * @return a copy of the project of the given artifact for this module, or <code>null</code> if its model is
+     *         invalid
+     */
+    private MavenProject buildProject(Artifact artifact) {
+        ProjectBuildingRequest req = new DefaultProjectBuildingRequest()
+                .setValidationLevel(ModelBuildingRequest.VALIDATION_LEVEL_MINIMAL)
+                .setProcessPlugins(false)
+                .setRepositorySession(mavenSession.getRepositorySession())
+                .setSystemProperties(mavenSession.getSystemProperties())
+                .setUserProperties(mavenSession.getUserProperties())
+                .setLocalRepository(mavenSession.getLocalRepository())
+                .setRemoteRepositories(project.getRemoteArtifactRepositories());
+        String key = DependencyProjectCache.key(artifact, req, dependencyModelResolution, dependencyMetadataCache);
+        try {
+            MavenProject cached = DependencyProjectCache.of(mavenSession).get(key, () -> loadProject(artifact, req));
+            // templates may change the project, and its artifact is the one of the module that built it
+            MavenProject p = cached.clone();
+            p.setArtifact(artifact);
+            return p;
+        } catch (ProjectBuildingException e) {
+            getLog().debug("Ignoring invalid project model for artifact " + artifact);
+            return null;
+        }
+    }
+
+    /**
+     * Loads the project of the given artifact from the <code>dependencyMetadataCache</code> or from its POMs when
+     * possible, builds it otherwise.
+     */
+    private MavenProject loadProject(Artifact artifact, ProjectBuildingRequest req) throws ProjectBuildingException {
+        boolean metadataOnly = "metadata".equals(dependencyModelResolution);
+        PomChain pomChain = metadataCache != null || metadataOnly ? resolvePomChain(artifact) : null;
+
+        String checksum = null;
+        if (metadataCache != null && pomChain != null) {
+            try {
+                checksum = pomChain.checksum(req.getUserProperties(), req.getSystemProperties());
+            } catch (IOException e) {
+                getLog().debug("Unable to compute the POM checksum of " + artifact + ": " + e.getMessage());
+            }
+            if (checksum != null) {
+                Model model = metadataCache.get(
+                        artifact.getGroupId(), artifact.getArtifactId(), artifact.getVersion(), checksum);
+                if (model != null) {
+                    getLog().debug("Using cached metadata for " + artifact);
+                    return toMetadataProject(artifact, model);
+                }
             }
+        }
 
+        Model model = null;
+        if (metadataOnly && pomChain != null) {
+            model = MetadataModelBuilder.build(pomChain, req.getUserProperties(), req.getSystemProperties());
+            if (model == null) {
+                getLog().debug("Unable to read the metadata of " + artifact + " from its POMs");
+            }
+        }
+
+        MavenProject p;
+        if (model != null) {
+            getLog().debug("Read metadata for " + artifact);
+            p = toMetadataProject(artifact, model);
+        } else {
             getLog().debug("Building project for " + artifact);
-            MavenProject p;
             try {
-                ProjectBuildingRequest req = new DefaultProjectBuildingRequest()
-                        .setValidationLevel(ModelBuildingRequest.VALIDATION_LEVEL_MINIMAL)
-                        .setProcessPlugins(false)
-                        .setRepositorySession(mavenSession.getRepositorySession())
-                        .setSystemProperties(mavenSession.getSystemProperties())
-                        .setUserProperties(mavenSession.getUserProperties())
-                        .setLocalRepository(mavenSession.getLocalRepository())
-                        .setRemoteRepositories(project.getRemoteArtifactRepositories());
                 ProjectBuildingResult res = projectBuilder.build(artifact, req);
                 p = res.getProject();
             } catch (ProjectBuildingException e) {
+                // reported once, the failure is cached for the other executions
                 getLog().warn("Invalid project model for artifact [" + artifact.getGroupId() + ":"
                         + artifact.getArtifactId() + ":" + artifact.getVersion() + "]. "
                         + "It will be ignored by the remote resources Mojo.");
-                continue;
+                throw e;
             }
+        }
 
-            String supplementKey = generateSupplementMapKey(
-                    p.getModel().getGroupId(), p.getModel().getArtifactId());
-
-            if (supplementModels.containsKey(supplementKey)) {
-                Model mergedModel = mergeModels(p.getModel(), supplementModels.get(supplementKey));
-                MavenProject mergedProject = new MavenProject(mergedModel);
-                projects.add(mergedProject);
-                mergedProject.setArtifact(artifact);
-                mergedProject.setVersion(artifact.getVersion());
-                getLog().debug("Adding project with groupId [" + mergedProject.getGroupId() + "] (supplemented)");
-            } else {
-                projects.add(p);
-                getLog().debug("Adding project with groupId [" + p.getGroupId() + "]");
+        if (checksum != null) {
+            try {
+                metadataCache.put(
+                        artifact.getGroupId(), artifact.getArtifactId(), artifact.getVersion(), checksum, p.getModel());
+            } catch (IOException e) {
+                getLog().warn("Unable to store the metadata of " + artifact + " in " + dependencyMetadataCache + ": "
+                        + e.getMessage());
             }
         }
-        projects.sort(new ProjectComparator());
-        return projects;
+        return p;
+    }
+
+    private static MavenProject toMetadataProject(Artifact artifact, Model model) {
+        MavenProject p = new MavenProject(model);
+        p.setArtifact(artifact);
+        return p;
+    }
+
+    /**
+     * @return the POM of the given artifact and its parents, or <code>null</code> if they cannot be resolved without
+     *         building the project
+     */
+    private PomChain resolvePomChain(Artifact artifact) {
+        try {
+            return PomChain.resolve(
+                    repoSystem,
+                    mavenSession.getRepositorySession(),
+                    project.getRemoteProjectRepositories(),
+                    artifact.getGroupId(),
+                    artifact.getArtifactId(),
+                    artifact.getVersion());
+        } catch (ArtifactResolutionException | IOException | XmlPullParserException e) {
+            getLog().debug("Unable to read the POMs of " + artifact + ": " + e.getMessage());
+            return null;
+        }
     }
 
     /**
@@ -612,28 +1063,29 @@ public abstract class AbstractProcessRemoteResourcesMojo extends AbstractMojo {
     protected boolean copyResourceIfExists(
             File outputFile, String bundleResourceName, VelocityContext context, String encoding)
             throws IOException, MojoExecutionException {
-        for (Resource resource : project.getResources()) {
-            File resourceDirectory = new File(resource.getDirectory());
-
-            if (!resourceDirectory.exists()) {
-                continue;
+        for (ProjectFiles.ResourceDirectory resourceDirectory : getProjectFiles().getResourceDirectories()) {
+            Resource resource = resourceDirectory.getResource();
+
+            // TODO - really should use the resource name mapping
+            File source = new File(resourceDirectory.getDirectory(), bundleResourceName);
+            File templateSource = new File(resourceDirectory.getDirectory(), bundleResourceName + TEMPLATE_SUFFIX);
+            if (incrementalState != null) {
+                incrementalState.addInput(source);
+                incrementalState.addInput(templateSource);
             }
 
-            // TODO - really should use the resource includes/excludes and name mapping
-            File source = new File(resourceDirectory, bundleResourceName);
-            File templateSource = new File(resourceDirectory, bundleResourceName + TEMPLATE_SUFFIX);
-
-            if (!source.exists() && templateSource.exists()) {
+            boolean exists = resourceDirectory.contains(bundleResourceName);
+            boolean template = !exists && resourceDirectory.contains(bundleResourceName + TEMPLATE_SUFFIX);
+            if (template) {
                 source = templateSource;
             }
 
-            if (source.exists() && !source.equals(outputFile)) {
-                if (source == templateSource) {
+            if ((exists || template) && !source.equals(outputFile)) {
+                if (template) {
                     getLog().debug("Use project resource '" + source + "' as resource with Velocity");
-                    try (CachingOutputStream os = new CachingOutputStream(outputFile);
-                            Writer writer = getWriter(encoding, os);
-                            Reader reader = getReader(encoding, source)) {
-                        velocity.evaluate(context, writer, "", reader);
+                    try (OutputStream os = newOutputStream(outputFile);
+                            Writer writer = getWriter(encoding, os)) {
+                        templateCache.get(source, getCharset(encoding)).merge(context, writer);
                     } catch (ParseErrorException | MethodInvocationException | ResourceNotFoundException e) {
                         throw new MojoExecutionException("Error rendering velocity resource: " + source, e);
                     }
@@ -653,7 +1105,12 @@ public abstract class AbstractProcessRemoteResourcesMojo extends AbstractMojo {
                 }
 
                 // exclude the original (so eclipse doesn't complain about duplicate resources)
-                resource.addExclude(bundleResourceName);
+                synchronized (resource) {
+                    resource.addExclude(bundleResourceName);
+                }
+                if (incrementalState != null) {
+                    incrementalState.addExclude(resource.getDirectory(), bundleResourceName);
+                }
 
                 return true;
             }
@@ -667,7 +1124,10 @@ public abstract class AbstractProcessRemoteResourcesMojo extends AbstractMojo {
         }
 
         File source = new File(project.getBasedir(), bundleResourceName);
-        if (source.exists()) {
+        if (incrementalState != null) {
+            incrementalState.addInput(source);
+        }
+        if (getProjectFiles().existsInBasedir(bundleResourceName)) {
             getLog().debug("Use project file '" + source + "' as resource");
             FilteringUtils.copyFile(source, outputFile, null, null);
             return true;
@@ -676,9 +1136,25 @@ public abstract class AbstractProcessRemoteResourcesMojo extends AbstractMojo {
         return false;
     }
 
-    private Reader getReader(String readerEncoding, File file) throws IOException {
-        return Files.newBufferedReader(
-                file.toPath(), Charset.forName(readerEncoding != null ? readerEncoding : encoding));
+    /**
+     * @return the files of the project that may override bundle resources, scanned on first use
+     */
+    private synchronized ProjectFiles getProjectFiles() {
+        if (projectFiles == null) {
+            projectFiles = new ProjectFiles(project.getResources(), project.getBasedir());
+        }
+        return projectFiles;
+    }
+
+    /**
+     * @return a stream to the given output file, which is only written if the content changed
+     */
+    private OutputStream newOutputStream(File outputFile) {
+        return new ChangeDetectingOutputStream(outputFile, velocityFilterInMemoryThreshold);
+    }
+
+    private Charset getCharset(String charsetName) {
+        return Charset.forName(charsetName != null ? charsetName : encoding);
     }
 
     private Writer getWriter(String writerEncoding, OutputStream outputStream) throws IOException {
@@ -748,6 +1224,11 @@ public abstract class AbstractProcessRemoteResourcesMojo extends AbstractMojo {
 
             bundleCount++;
         }
+
+        if (!"full".equals(dependencyModelResolution) && !"metadata".equals(dependencyModelResolution)) {
+            throw new MojoExecutionException("Unsupported dependencyModelResolution '" + dependencyModelResolution
+                    + "', must be one of 'full' or 'metadata'");
+        }
     }
 
     private static final String KEY_PROJECTS = "projects";
@@ -767,7 +1248,9 @@ public abstract class AbstractProcessRemoteResourcesMojo extends AbstractMojo {
         // the following properties are expensive to calculate, so we provide them lazily
         VelocityContext context = new VelocityContext(contextProperties) {
             @Override
-            public Object internalGet(String key) {
+            public synchronized Object internalGet(String key) {
+                // synchronized for the concurrent rendering: the projects are computed once, and the keys already
+                // exist so that puts never change the structure of the map read by the other threads
                 Object result = super.internalGet(key);
                 if (result == null && key != null && key.startsWith(KEY_PROJECTS) && containsKey(key)) {
                     // calculate and put projects* properties
@@ -786,11 +1269,7 @@ public abstract class AbstractProcessRemoteResourcesMojo extends AbstractMojo {
 
         String inceptionYear = project.getInceptionYear();
 
-        // Reproducible Builds: try to use reproducible output timestamp
-        String year = MavenArchiver.parseBuildOutputTimestamp(outputTimestamp)
-                .orElseGet(Instant::now)
-                .atZone(ZoneId.of("UTC+10"))
-                .format(DateTimeFormatter.ofPattern("yyyy"));
+        String year = getPresentYear();
 
         if (inceptionYear == null || inceptionYear.isEmpty()) {
             if (getLog().isDebugEnabled()) {
@@ -811,25 +1290,42 @@ public abstract class AbstractProcessRemoteResourcesMojo extends AbstractMojo {
         return context;
     }
 
+    private String getPresentYear() {
+        // Reproducible Builds: try to use reproducible output timestamp
+        return MavenArchiver.parseBuildOutputTimestamp(outputTimestamp)
+                .orElseGet(Instant::now)
+                .atZone(ZoneId.of("UTC+10"))
+                .format(DateTimeFormatter.ofPattern("yyyy"));
+    }
+
+    /**
+     * Resolves the given bundle descriptors to files, in the order they are given. Bundles found in the reactor are
+     * used directly, all the others are resolved in a single batch: the resolver then downloads them in parallel
+     * (bounded by its connector thread pool) and reports every failing artifact at once.
+     */
     private List<File> downloadBundles(List<String> bundles) throws MojoExecutionException {
-        List<File> bundleArtifacts = new ArrayList<>();
+        File[] bundleArtifacts = new File[bundles.size()];
 
-        for (String artifactDescriptor : bundles) {
+        List<ArtifactRequest> requests = new ArrayList<>();
+        List<Integer> requestIndexes = new ArrayList<>();
+
+        ReactorProjectIndex reactorProjects = mavenSession != null ? ReactorProjectIndex.of(mavenSession) : null;
+
+        for (int i = 0; i < bundles.size(); i++) {
+            String artifactDescriptor = bundles.get(i);
             getLog().info("Preparing remote bundle " + artifactDescriptor);
             // groupId:artifactId:version[:type[:classifier]]
             String[] s = artifactDescriptor.split(":");
 
             File artifactFile = null;
             // check if the artifact is part of the reactor
-            if (mavenSession != null) {
-                List<MavenProject> list = mavenSession.getProjects();
-                for (MavenProject p : list) {
-                    if (s[0].equals(p.getGroupId()) && s[1].equals(p.getArtifactId()) && s[2].equals(p.getVersion())) {
-                        if (s.length >= 4 && "test-jar".equals(s[3])) {
-                            artifactFile = new File(p.getBuild().getTestOutputDirectory());
-                        } else {
-                            artifactFile = new File(p.getBuild().getOutputDirectory());
-                        }
+            if (reactorProjects != null) {
+                MavenProject p = reactorProjects.get(s[0], s[1], s[2]);
+                if (p != null) {
+                    if (s.length >= 4 && "test-jar".equals(s[3])) {
+                        artifactFile = new File(p.getBuild().getTestOutputDirectory());
+                    } else {
+                        artifactFile = new File(p.getBuild().getOutputDirectory());
                     }
                 }
             }
@@ -845,36 +1341,63 @@ public abstract class AbstractProcessRemoteResourcesMojo extends AbstractMojo {
                 DefaultArtifact artifact =
                         new DefaultArtifact(g, a, classifier, artifactType.getExtension(), v, artifactType);
 
-                try {
-                    ArtifactRequest request =
-                            new ArtifactRequest(artifact, project.getRemoteProjectRepositories(), "remote-resources");
-                    ArtifactResult result = repoSystem.resolveArtifact(mavenSession.getRepositorySession(), request);
-                    artifactFile = result.getArtifact().getFile();
-                } catch (ArtifactResolutionException e) {
-                    throw new MojoExecutionException("Error processing remote resources", e);
-                }
+                requests.add(new ArtifactRequest(artifact, project.getRemoteProjectRepositories(), "remote-resources"));
+                requestIndexes.add(i);
+            } else {
+                bundleArtifacts[i] = artifactFile;
             }
-            bundleArtifacts.add(artifactFile);
         }
 
-        return bundleArtifacts;
+        if (!requests.isEmpty()) {
+            List<ArtifactResult> results;
+            try {
+                results = repoSystem.resolveArtifacts(mavenSession.getRepositorySession(), requests);
+            } catch (ArtifactResolutionException e) {
+                throw new MojoExecutionException(getResolutionFailureMessage(e), e);
+            }
+
+            // results come back in request order
+            for (int i = 0; i < results.size(); i++) {
+                bundleArtifacts[requestIndexes.get(i)] = results.get(i).getArtifact().getFile();
+            }
+        }
+
+        return Arrays.asList(bundleArtifacts);
+    }
+
+    private static String getResolutionFailureMessage(ArtifactResolutionException e) {
+        StringBuilder msg = new StringBuilder("Error processing remote resources, unable to resolve:");
+        for (ArtifactResult result : e.getResults()) {
+            if (result.isResolved()) {
+                continue;
+            }
+            msg.append(System.lineSeparator()).append("  - ").append(result.getRequest().getArtifact());
+            for (Exception exception : result.getExceptions()) {
+                msg.append(System.lineSeparator()).append("      ").append(exception.getMessage());
+            }
+        }
+        return msg.toString();
     }
 
-    private ClassLoader initalizeClassloader(List<File> artifacts) throws MojoExecutionException {
+    private RemoteResourcesClassLoader initalizeClassloader(List<File> artifacts) throws MojoExecutionException {
         RemoteResourcesClassLoader cl = new RemoteResourcesClassLoader(null);
         try {
             for (File artifact : artifacts) {
                 cl.addURL(artifact.toURI().toURL());
             }
+            // open all the bundles once, for the lookups of all the resources
+            cl.getIndex();
             return cl;
-        } catch (MalformedURLException e) {
+        } catch (IOException e) {
             throw new MojoExecutionException("Unable to configure resources classloader: " + e.getMessage(), e);
         }
     }
 
     protected void processResourceBundles(ClassLoader classLoader, VelocityContext context)
             throws MojoExecutionException {
-        List<Map.Entry<String, RemoteResourcesBundle>> remoteResources = new ArrayList<>();
+        // the bundle entry generating each resource: the last one declared wins, as it used to overwrite the others
+        Map<String, Map.Entry<String, RemoteResourcesBundle>> plan = new LinkedHashMap<>();
+        Map<String, URL> providers = new HashMap<>();
         int bundleCount = 0;
         int resourceCount = 0;
 
@@ -901,7 +1424,13 @@ public abstract class AbstractProcessRemoteResourcesMojo extends AbstractMojo {
                     n++;
                     resourceCount++;
                     getLog().debug("bundle#" + bundleCount + " resource#" + n + " " + bundleResource);
-                    remoteResources.add(new AbstractMap.SimpleEntry<>(bundleResource, bundle));
+                    String projectResource = getProjectResource(bundleResource);
+                    plan.put(projectResource, new AbstractMap.SimpleEntry<>(bundleResource, bundle));
+                    URL provider = providers.put(projectResource, url);
+                    if (provider != null) {
+                        getLog().warn("Resource " + projectResource + " is provided by both " + provider + " and "
+                                + url + ", using the latter");
+                    }
                 }
             }
         } catch (IOException ioe) {
@@ -913,79 +1442,339 @@ public abstract class AbstractProcessRemoteResourcesMojo extends AbstractMojo {
         getLog().info("Copying " + resourceCount + " resource" + ((resourceCount > 1) ? "s" : "") + " from "
                 + bundleCount + " bundle" + ((bundleCount > 1) ? "s" : "") + ".");
 
-        String velocityResource = null;
-        try {
-
-            for (Map.Entry<String, RemoteResourcesBundle> entry : remoteResources) {
-                String bundleResource = entry.getKey();
-                RemoteResourcesBundle bundle = entry.getValue();
+        if (plan.size() < resourceCount) {
+            getLog().debug("Skipping " + (resourceCount - plan.size()) + " shadowed resources");
+        }
 
-                String projectResource = bundleResource;
+        Set<File> directories = new LinkedHashSet<>();
+        for (String projectResource : plan.keySet()) {
+            directories.add(new File(outputDirectory, projectResource).getParentFile());
+        }
+        for (File directory : directories) {
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                throw new MojoExecutionException("Could not create directory " + directory);
+            }
+        }
 
-                boolean doVelocity = false;
-                if (projectResource.endsWith(TEMPLATE_SUFFIX)) {
-                    projectResource = projectResource.substring(0, projectResource.length() - 3);
-                    velocityResource = bundleResource;
-                    doVelocity = true;
+        int skipped = 0;
+        int threads = Math.min(renderThreads, plan.size());
+        if (threads <= 1) {
+            for (Map.Entry<String, RemoteResourcesBundle> entry : plan.values()) {
+                if (processBundleResource(classLoader, context, entry.getKey(), entry.getValue(), false)) {
+                    skipped++;
                 }
+            }
+        } else {
+            skipped = processBundleResourcesConcurrently(classLoader, context, plan.values(), threads);
+        }
 
-                // Don't overwrite resource that are already being provided.
-
-                File outputFile = new File(outputDirectory, projectResource);
+        if (skipped > 0) {
+            getLog().info("Skipped " + skipped + " unchanged resource" + ((skipped > 1) ? "s" : "") + ".");
+        }
+    }
 
-                FileUtils.mkdir(outputFile.getParentFile().getAbsolutePath());
+    /**
+     * Generates the resources with a pool of threads, one task per resource.
+     *
+     * @return the number of unchanged resources skipped
+     */
+    private int processBundleResourcesConcurrently(
+            ClassLoader classLoader,
+            VelocityContext context,
+            Collection<Map.Entry<String, RemoteResourcesBundle>> entries,
+            int threads)
+            throws MojoExecutionException {
+        getLog().debug("Generating " + entries.size() + " resources with " + threads + " threads");
 
-                // resource exists in project resources
-                if (copyResourceIfExists(outputFile, projectResource, context, bundle.getSourceEncoding())) {
-                    continue;
-                }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CompletionService<Boolean> completionService = new ExecutorCompletionService<>(executor);
+            for (Map.Entry<String, RemoteResourcesBundle> entry : entries) {
+                completionService.submit(() -> {
+                    // for the Velocity classpath resource loader
+                    Thread.currentThread().setContextClassLoader(classLoader);
+                    return processBundleResource(classLoader, context, entry.getKey(), entry.getValue(), true);
+                });
+            }
 
-                if (copyProjectRootIfExists(outputFile, projectResource)) {
-                    continue;
+            int skipped = 0;
+            for (int i = 0; i < entries.size(); i++) {
+                // take results as they complete, so that a failure is noticed as soon as it happens
+                if (completionService.take().get()) {
+                    skipped++;
                 }
+            }
+            return skipped;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while generating remote resources", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof MojoExecutionException) {
+                throw (MojoExecutionException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new MojoExecutionException("Error generating remote resources: " + cause, cause);
+        } finally {
+            // cancels the tasks still pending when one failed
+            executor.shutdownNow();
+        }
+    }
 
-                if (doVelocity) {
-                    String bundleEncoding = bundle.getSourceEncoding();
-                    if (bundleEncoding == null) {
-                        bundleEncoding = encoding;
-                    }
+    /**
+     * Generates the resource of a bundle entry, unless the <code>incremental</code> mode finds it unchanged. The
+     * directory of the resource must exist.
+     *
+     * @param isolated whether the templates get their own context, instead of the shared one
+     * @return <code>true</code> if the resource was skipped as unchanged
+     */
+    private boolean processBundleResource(
+            ClassLoader classLoader,
+            VelocityContext context,
+            String bundleResource,
+            RemoteResourcesBundle bundle,
+            boolean isolated)
+            throws MojoExecutionException {
+        String projectResource = getProjectResource(bundleResource);
 
-                    try (CachingOutputStream os = new CachingOutputStream(outputFile);
-                            Writer writer = getWriter(bundleEncoding, os)) {
-                        velocity.mergeTemplate(bundleResource, bundleEncoding, context, writer);
-                    }
-                } else {
-                    URL bundleResourceUrl = classLoader.getResource(bundleResource);
-                    if (bundleResourceUrl != null) {
-                        FileUtils.copyURLToFile(bundleResourceUrl, outputFile);
-                    }
-                }
+        // Don't overwrite resource that are already being provided.
 
-                File appendedResourceFile = new File(appendedResourcesDirectory, projectResource);
-                File appendedVmResourceFile = new File(appendedResourcesDirectory, projectResource + ".vm");
+        File outputFile = new File(outputDirectory, projectResource);
 
-                if (appendedResourceFile.exists()) {
-                    getLog().info("Copying appended resource: " + projectResource);
-                    try (InputStream in = Files.newInputStream(appendedResourceFile.toPath());
-                            OutputStream out = new FileOutputStream(outputFile, true)) {
-                        IOUtil.copy(in, out);
-                    }
+        try {
+            if (incrementalState == null) {
+                VelocityContext renderContext = isolated ? new VelocityContext(context) : context;
+                processResource(classLoader, renderContext, bundleResource, bundle, projectResource, outputFile);
+                return false;
+            }
 
-                } else if (appendedVmResourceFile.exists()) {
-                    getLog().info("Filtering appended resource: " + projectResource + ".vm");
+            if (isRenderUpToDate(classLoader, context, bundleResource, bundle, projectResource)) {
+                getLog().debug("Skipping unchanged resource " + projectResource);
+                return true;
+            }
 
-                    try (CachingOutputStream os = new CachingOutputStream(outputFile);
-                            Reader reader = getReader(bundle.getSourceEncoding(), appendedVmResourceFile);
-                            Writer writer = getWriter(bundle.getSourceEncoding(), os)) {
-                        Velocity.init();
-                        Velocity.evaluate(context, writer, "remote-resources", reader);
-                    }
-                }
+            RecordingContext renderContext = new RecordingContext(context);
+            processResource(classLoader, renderContext, bundleResource, bundle, projectResource, outputFile);
+            String hash = computeRenderHash(
+                    classLoader,
+                    context,
+                    bundleResource,
+                    bundle,
+                    projectResource,
+                    renderContext.getReadKeys(),
+                    renderContext.getIncludes());
+            if (hash != null) {
+                incrementalState.addRender(
+                        projectResource,
+                        new IncrementalState.Render(hash, renderContext.getReadKeys(), renderContext.getIncludes()));
             }
+            return false;
         } catch (IOException ioe) {
             throw new MojoExecutionException("Error reading remote resource", ioe);
         } catch (VelocityException e) {
-            throw new MojoExecutionException("Error rendering Velocity resource '" + velocityResource + "'", e);
+            throw new MojoExecutionException("Error rendering Velocity resource '" + bundleResource + "'", e);
+        }
+    }
+
+    private static String getProjectResource(String bundleResource) {
+        if (bundleResource.endsWith(TEMPLATE_SUFFIX)) {
+            return bundleResource.substring(0, bundleResource.length() - 3);
+        }
+        return bundleResource;
+    }
+
+    /**
+     * Generates a project resource from a bundle resource, a local override and an appended resource.
+     */
+    private void processResource(
+            ClassLoader classLoader,
+            VelocityContext context,
+            String bundleResource,
+            RemoteResourcesBundle bundle,
+            String projectResource,
+            File outputFile)
+            throws IOException, MojoExecutionException {
+        // resource exists in project resources
+        if (copyResourceIfExists(outputFile, projectResource, context, bundle.getSourceEncoding())) {
+            return;
+        }
+
+        if (copyProjectRootIfExists(outputFile, projectResource)) {
+            return;
+        }
+
+        if (bundleResource.endsWith(TEMPLATE_SUFFIX)) {
+            String bundleEncoding = bundle.getSourceEncoding();
+            if (bundleEncoding == null) {
+                bundleEncoding = encoding;
+            }
+
+            try (OutputStream os = newOutputStream(outputFile);
+                    Writer writer = getWriter(bundleEncoding, os)) {
+                BundleIndex.Entry entry = classLoader instanceof RemoteResourcesClassLoader
+                        ? ((RemoteResourcesClassLoader) classLoader).getIndex().get(bundleResource)
+                        : null;
+                if (entry != null) {
+                    templateCache.get(entry, bundleEncoding).merge(context, writer);
+                } else {
+                    templateCache.getUncached(bundleResource, bundleEncoding).merge(context, writer);
+                }
+            }
+        } else {
+            BundleIndex.Entry entry = classLoader instanceof RemoteResourcesClassLoader
+                    ? ((RemoteResourcesClassLoader) classLoader).getIndex().get(bundleResource)
+                    : null;
+            if (entry != null) {
+                if (!entry.copyTo(outputFile)) {
+                    getLog().debug("Resource " + projectResource + " is up to date");
+                }
+            } else {
+                URL bundleResourceUrl = classLoader.getResource(bundleResource);
+                if (bundleResourceUrl != null) {
+                    FileUtils.copyURLToFile(bundleResourceUrl, outputFile);
+                }
+            }
+        }
+
+        File appendedResourceFile = new File(appendedResourcesDirectory, projectResource);
+        File appendedVmResourceFile = new File(appendedResourcesDirectory, projectResource + ".vm");
+
+        if (appendedResourceFile.exists()) {
+            getLog().info("Copying appended resource: " + projectResource);
+            try (InputStream in = Files.newInputStream(appendedResourceFile.toPath());
+                    OutputStream out = new FileOutputStream(outputFile, true)) {
+                IOUtil.copy(in, out);
+            }
+
+        } else if (appendedVmResourceFile.exists()) {
+            getLog().info("Filtering appended resource: " + projectResource + ".vm");
+
+            try (OutputStream os = newOutputStream(outputFile);
+                    Writer writer = getWriter(bundle.getSourceEncoding(), os)) {
+                templateCache
+                        .get(appendedVmResourceFile, getCharset(bundle.getSourceEncoding()))
+                        .merge(context, writer);
+            }
+        }
+    }
+
+    /**
+     * Checks whether a resource was generated by the previous processing from the same inputs, and if so records it
+     * as generated by this one.
+     */
+    private boolean isRenderUpToDate(
+            ClassLoader classLoader,
+            VelocityContext context,
+            String bundleResource,
+            RemoteResourcesBundle bundle,
+            String projectResource)
+            throws IOException {
+        IncrementalState.Render previous = previousState != null ? previousState.getRender(projectResource) : null;
+        if (previous == null || !previousState.isOutputUnchanged(outputDirectory, projectResource)) {
+            return false;
+        }
+        String hash = computeRenderHash(
+                classLoader,
+                context,
+                bundleResource,
+                bundle,
+                projectResource,
+                previous.getKeys(),
+                previous.getIncludes());
+        if (!previous.getHash().equals(hash)) {
+            return false;
+        }
+
+        incrementalState.addRender(projectResource, previous);
+        for (String[] exclude : previousState.getExcludes()) {
+            if (exclude[1].equals(projectResource)) {
+                addResourceExclude(exclude[0], exclude[1]);
+                incrementalState.addExclude(exclude[0], exclude[1]);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return a hash of the inputs of a generated resource, given the context keys it reads and the resources it
+     *         includes, or <code>null</code> if they cannot be compared
+     */
+    private String computeRenderHash(
+            ClassLoader classLoader,
+            VelocityContext context,
+            String bundleResource,
+            RemoteResourcesBundle bundle,
+            String projectResource,
+            Collection<String> keys,
+            Collection<String> includes)
+            throws IOException {
+        Fingerprint fingerprint = new Fingerprint();
+        fingerprint.add(bundleResource).add(bundle.getSourceEncoding()).add(encoding);
+        fingerprint.addResource(classLoader.getResource(bundleResource));
+        for (String include : includes) {
+            fingerprint.add(include).addResource(classLoader.getResource(include));
+        }
+
+        // local overrides, looked up in the same project files as copyResourceIfExists() and copyProjectRootIfExists()
+        ProjectFiles projectFiles = getProjectFiles();
+        for (ProjectFiles.ResourceDirectory resourceDirectory : projectFiles.getResourceDirectories()) {
+            if (resourceDirectory.getDirectory().equals(outputDirectory)) {
+                continue;
+            }
+            File source = new File(resourceDirectory.getDirectory(), projectResource);
+            File templateSource = new File(resourceDirectory.getDirectory(), projectResource + TEMPLATE_SUFFIX);
+            incrementalState.addInput(source);
+            incrementalState.addInput(templateSource);
+
+            boolean exists = resourceDirectory.contains(projectResource);
+            boolean template = !exists && resourceDirectory.contains(projectResource + TEMPLATE_SUFFIX);
+            if (exists && resourceDirectory.getResource().isFiltering()) {
+                // filtering uses more than the project model
+                return null;
+            }
+            fingerprint.addFile(exists ? source : null).addFile(template ? templateSource : null);
+        }
+        if (useProjectFiles) {
+            File source = new File(project.getBasedir(), projectResource);
+            incrementalState.addInput(source);
+            fingerprint.addFile(projectFiles.existsInBasedir(projectResource) ? source : null);
+        }
+
+        fingerprint.addFile(new File(appendedResourcesDirectory, projectResource));
+        fingerprint.addFile(new File(appendedResourcesDirectory, projectResource + TEMPLATE_SUFFIX));
+
+        for (String key : keys) {
+            String signature = getSignature(context, key);
+            if (signature == null) {
+                return null;
+            }
+            fingerprint.add(key).add(signature);
+        }
+        return fingerprint.hash();
+    }
+
+    /**
+     * @return a value that changes whenever the given context value changes, or <code>null</code> if there is none
+     */
+    private String getSignature(VelocityContext context, String key) throws IOException {
+        switch (key) {
+            case KEY_PROJECTS:
+            case KEY_PROJECTS_ORGS:
+                // not computed, as this is what the incremental rendering saves
+                return getDependenciesSignature();
+            case "project":
+                return getProjectSignature();
+            default:
+                Object value = context.get(key);
+                if (value == null) {
+                    return "null";
+                }
+                if (value instanceof String || value instanceof Number || value instanceof Boolean) {
+                    return value.getClass().getName() + ':' + value;
+                }
+                return null;
         }
     }
 
@@ -1003,24 +1792,18 @@ public abstract class AbstractProcessRemoteResourcesMojo extends AbstractMojo {
         }
     }
 
+    /**
+     * @deprecated supplemental models files are read by {@link SupplementalModelsReader}, without writing their
+     *             elements back to text
+     */
+    @Deprecated
     protected Model getSupplement(Xpp3Dom supplementModelXml) throws MojoExecutionException {
         MavenXpp3Reader modelReader = new MavenXpp3Reader();
         Model model = null;
 
         try {
             model = modelReader.read(new StringReader(supplementModelXml.toString()));
-            String groupId = model.getGroupId();
-            String artifactId = model.getArtifactId();
-
-            if (groupId == null || groupId.trim().isEmpty()) {
-                throw new MojoExecutionException(
-                        "Supplemental project XML " + "requires that a <groupId> element be present.");
-            }
-
-            if (artifactId == null || artifactId.trim().isEmpty()) {
-                throw new MojoExecutionException(
-                        "Supplemental project XML " + "requires that a <artifactId> element be present.");
-            }
+            checkSupplement(model);
         } catch (IOException e) {
             getLog().warn("Unable to read supplemental XML: " + e.getMessage(), e);
         } catch (XmlPullParserException e) {
@@ -1030,40 +1813,80 @@ public abstract class AbstractProcessRemoteResourcesMojo extends AbstractMojo {
         return model;
     }
 
+    private static void checkSupplement(Model model) throws MojoExecutionException {
+        String groupId = model.getGroupId();
+        String artifactId = model.getArtifactId();
+
+        if (groupId == null || groupId.trim().isEmpty()) {
+            throw new MojoExecutionException(
+                    "Supplemental project XML " + "requires that a <groupId> element be present.");
+        }
+
+        if (artifactId == null || artifactId.trim().isEmpty()) {
+            throw new MojoExecutionException(
+                    "Supplemental project XML " + "requires that a <artifactId> element be present.");
+        }
+    }
+
+    /**
+     * @deprecated supplements are no longer merged into the dependency models but laid over the dependency projects
+     */
+    @Deprecated
     protected Model mergeModels(Model parent, Model child) {
         inheritanceAssembler.assembleModelInheritance(child, parent);
         return child;
     }
 
-    private static String generateSupplementMapKey(String groupId, String artifactId) {
-        return groupId.trim() + ":" + artifactId.trim();
-    }
-
-    private Map<String, Model> loadSupplements(String[] models) throws MojoExecutionException {
+    /**
+     * Loads the supplements of the given supplemental models files, or takes them from the session cache if the same
+     * files were already loaded. The files are read straight from their location, jar entry or URL, without being
+     * copied to the build directory first.
+     *
+     * @return the index of the supplements, shared with the other modules
+     */
+    private SupplementIndex loadSupplements(String[] models) throws MojoExecutionException {
         if (models == null) {
             getLog().debug("Supplemental data models won't be loaded. No models specified.");
-            return Collections.emptyMap();
+            return SupplementIndex.EMPTY;
         }
 
-        List<Supplement> supplements = new ArrayList<>();
-        for (String set : models) {
-            getLog().debug("Preparing ruleset: " + set);
-            try {
-                File f = locator.getResourceAsFile(set, getLocationTemp(set));
-
-                if (null == f || !f.exists()) {
-                    throw new MojoExecutionException("Cold not resolve " + set);
+        List<Map.Entry<String, byte[]>> contents = new ArrayList<>();
+        List<byte[]> keyContents = new ArrayList<>();
+        String key;
+        try {
+            for (String set : models) {
+                getLog().debug("Preparing ruleset: " + set);
+                PlexusResource resource;
+                try {
+                    resource = locator.getResource(set);
+                } catch (org.codehaus.plexus.resource.loader.ResourceNotFoundException e) {
+                    throw new MojoExecutionException("Cold not resolve " + set, e);
                 }
-                if (!f.canRead()) {
-                    throw new MojoExecutionException("Supplemental data models won't be loaded. " + "File "
-                            + f.getAbsolutePath() + " cannot be read, check permissions on the file.");
+
+                try (InputStream in = resource.getInputStream()) {
+                    byte[] content = IOUtil.toByteArray(in);
+                    contents.add(new AbstractMap.SimpleEntry<>(resource.getName(), content));
+                    keyContents.add(content);
                 }
+            }
+            key = SupplementCache.key(keyContents);
+        } catch (Exception e) {
+            String msg = "Error loading supplemental data models: " + e.getMessage();
+            getLog().error(msg, e);
+            throw new MojoExecutionException(msg, e);
+        }
 
-                getLog().debug("Loading supplemental models from " + f.getAbsolutePath());
+        return SupplementCache.of(mavenSession).get(key, () -> readSupplements(contents));
+    }
+
+    private SupplementIndex readSupplements(List<Map.Entry<String, byte[]>> contents)
+            throws MojoExecutionException {
+        List<SupplementIndex.Entry> supplements = new ArrayList<>();
+        for (Map.Entry<String, byte[]> content : contents) {
+            getLog().debug("Loading supplemental models from " + content.getKey());
 
-                SupplementalDataModelXpp3Reader reader = new SupplementalDataModelXpp3Reader();
-                SupplementalDataModel supplementalModel = reader.read(new FileReader(f));
-                supplements.addAll(supplementalModel.getSupplement());
+            try {
+                supplements.addAll(SupplementalModelsReader.read(new ByteArrayInputStream(content.getValue())));
             } catch (Exception e) {
                 String msg = "Error loading supplemental data models: " + e.getMessage();
                 getLog().error(msg, e);
@@ -1073,33 +1896,11 @@ public abstract class AbstractProcessRemoteResourcesMojo extends AbstractMojo {
 
         getLog().debug("Loading supplements complete.");
 
-        Map<String, Model> supplementMap = new HashMap<>();
-        for (Supplement sd : supplements) {
-            Xpp3Dom dom = (Xpp3Dom) sd.getProject();
-
-            Model m = getSupplement(dom);
-            supplementMap.put(generateSupplementMapKey(m.getGroupId(), m.getArtifactId()), m);
+        for (SupplementIndex.Entry supplement : supplements) {
+            checkSupplement(supplement.getModel());
         }
 
-        return supplementMap;
-    }
-
-    /**
-     * Convenience method to get the location of the specified file name.
-     *
-     * @param name the name of the file whose location is to be resolved
-     * @return a String that contains the absolute file name of the file
-     */
-    private String getLocationTemp(String name) {
-        String loc = name;
-        if (loc.indexOf('/') != -1) {
-            loc = loc.substring(loc.lastIndexOf('/') + 1);
-        }
-        if (loc.indexOf('\\') != -1) {
-            loc = loc.substring(loc.lastIndexOf('\\') + 1);
-        }
-        getLog().debug("Before: " + name + " After: " + loc);
-        return loc;
+        return SupplementIndex.build(supplements);
     }
 
     static class OrganizationComparator implements Comparator<Organization> {
@@ -0,0 +1,283 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugin.resources.remote;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Index of the entries of all the resource bundles, jars or directories, by name. Each bundle is opened and listed
+ * once, so that looking up a resource no longer searches the bundles one after another. When several bundles hold the
+ * same name, the entry of the first one wins, as with a class loader.
+ */
+final class BundleIndex implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * An entry of a bundle.
+     */
+    static final class Entry {
+        private final File bundle;
+
+        private final String name;
+
+        private final ZipFile zipFile;
+
+        private final ZipEntry zipEntry;
+
+        private final File file;
+
+        private Entry(File bundle, String name, ZipFile zipFile, ZipEntry zipEntry, File file) {
+            this.bundle = bundle;
+            this.name = name;
+            this.zipFile = zipFile;
+            this.zipEntry = zipEntry;
+            this.file = file;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        /**
+         * @return the jar or directory holding the entry
+         */
+        File getBundle() {
+            return bundle;
+        }
+
+        /**
+         * @return the file of the entry if its bundle is a directory, <code>null</code> if it is a jar
+         */
+        File getFile() {
+            return file;
+        }
+
+        InputStream openStream() throws IOException {
+            return zipFile != null ? zipFile.getInputStream(zipEntry) : Files.newInputStream(file.toPath());
+        }
+
+        long getSize() {
+            return zipEntry != null ? zipEntry.getSize() : file.length();
+        }
+
+        /**
+         * Copies the entry to the given file, unless the file already has the same size and CRC. Jar entries are
+         * inflated straight from the open jar, files of directories are transferred by the file system.
+         *
+         * @return <code>false</code> if the file was already up to date
+         */
+        boolean copyTo(File target) throws IOException {
+            Path targetPath = target.toPath();
+            if (zipEntry != null) {
+                if (zipEntry.getSize() >= 0
+                        && zipEntry.getCrc() >= 0
+                        && target.isFile()
+                        && target.length() == zipEntry.getSize()
+                        && crc(targetPath) == zipEntry.getCrc()) {
+                    return false;
+                }
+                try (InputStream in = zipFile.getInputStream(zipEntry)) {
+                    Files.copy(in, targetPath, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } else {
+                Path sourcePath = file.toPath();
+                if (target.isFile() && target.length() == file.length() && crc(targetPath) == crc(sourcePath)) {
+                    return false;
+                }
+                try (FileChannel in = FileChannel.open(sourcePath, StandardOpenOption.READ);
+                        FileChannel out = FileChannel.open(
+                                targetPath,
+                                StandardOpenOption.WRITE,
+                                StandardOpenOption.CREATE,
+                                StandardOpenOption.TRUNCATE_EXISTING)) {
+                    long size = in.size();
+                    for (long position = 0; position < size; ) {
+                        position += in.transferTo(position, size - position, out);
+                    }
+                }
+            }
+            return true;
+        }
+
+        private static long crc(Path path) throws IOException {
+            CRC32 crc = new CRC32();
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                while (channel.read(buffer) != -1) {
+                    buffer.flip();
+                    crc.update(buffer);
+                    buffer.clear();
+                }
+            }
+            return crc.getValue();
+        }
+
+        /**
+         * @return the URL of the entry, as a class loader would return it, but read through this index
+         */
+        URL toUrl() throws MalformedURLException {
+            String spec;
+            if (file != null) {
+                spec = file.toURI().toString();
+            } else {
+                try {
+                    spec = "jar:" + bundle.toURI() + "!/" + new URI(null, null, name, null).getRawPath();
+                } catch (URISyntaxException e) {
+                    throw new MalformedURLException(e.getMessage());
+                }
+            }
+            return new URL(null, spec, new EntryStreamHandler(this));
+        }
+    }
+
+    /**
+     * Opens the entry directly, instead of looking up the bundle again through the URL.
+     */
+    private static final class EntryStreamHandler extends URLStreamHandler {
+        private final Entry entry;
+
+        EntryStreamHandler(Entry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        protected URLConnection openConnection(URL url) {
+            return new URLConnection(url) {
+                @Override
+                public void connect() {
+                    connected = true;
+                }
+
+                @Override
+                public InputStream getInputStream() throws IOException {
+                    return entry.openStream();
+                }
+
+                @Override
+                public long getContentLengthLong() {
+                    return entry.getSize();
+                }
+            };
+        }
+    }
+
+    private final List<ZipFile> zipFiles = new ArrayList<>();
+
+    private final Map<String, List<Entry>> entries = new HashMap<>();
+
+    /**
+     * Opens and lists the given bundles, in order.
+     */
+    BundleIndex(List<File> bundles) throws IOException {
+        try {
+            for (File bundle : bundles) {
+                if (bundle.isDirectory()) {
+                    addDirectory(bundle);
+                } else if (bundle.isFile()) {
+                    addJar(bundle);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    private void addJar(File bundle) throws IOException {
+        ZipFile zipFile = new ZipFile(bundle);
+        zipFiles.add(zipFile);
+        for (Enumeration<? extends ZipEntry> e = zipFile.entries(); e.hasMoreElements(); ) {
+            ZipEntry zipEntry = e.nextElement();
+            if (!zipEntry.isDirectory()) {
+                add(new Entry(bundle, zipEntry.getName(), zipFile, zipEntry, null));
+            }
+        }
+    }
+
+    private void addDirectory(File bundle) throws IOException {
+        Path root = bundle.toPath();
+        try (Stream<Path> walk = Files.walk(root)) {
+            for (Path file : (Iterable<Path>) walk.filter(Files::isRegularFile).sorted()::iterator) {
+                String name = root.relativize(file).toString().replace(File.separatorChar, '/');
+                add(new Entry(bundle, name, null, null, file.toFile()));
+            }
+        }
+    }
+
+    private void add(Entry entry) {
+        entries.computeIfAbsent(entry.getName(), k -> new ArrayList<>(1)).add(entry);
+    }
+
+    /**
+     * @return the entry of the first bundle holding the given name, or <code>null</code> if none does
+     */
+    Entry get(String name) {
+        List<Entry> found = entries.get(name);
+        return found != null ? found.get(0) : null;
+    }
+
+    /**
+     * @return the entries of all the bundles holding the given name, in bundle order
+     */
+    List<Entry> getAll(String name) {
+        List<Entry> found = entries.get(name);
+        return found != null ? found : Collections.emptyList();
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (ZipFile zipFile : zipFiles) {
+            try {
+                zipFile.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        zipFiles.clear();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
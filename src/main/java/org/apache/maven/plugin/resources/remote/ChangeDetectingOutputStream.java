@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugin.resources.remote;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Output stream to a file that leaves the file untouched when the new content is identical to the existing one.
+ * <p>
+ * Content up to a threshold is buffered and compared in memory. Beyond it, the content is streamed to a temporary file
+ * next to the target while being hashed, and on close that file either replaces the target with an atomic move or is
+ * discarded when the hashes match, so that the memory used stays bounded whatever the size of the content.
+ */
+final class ChangeDetectingOutputStream extends OutputStream {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path target;
+
+    private final int threshold;
+
+    private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+    private Path tempFile;
+
+    private DigestOutputStream tempOut;
+
+    private boolean closed;
+
+    ChangeDetectingOutputStream(File target, int threshold) {
+        this.target = target.toPath();
+        this.threshold = threshold;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[] {(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (tempOut == null && buffer.size() + len > threshold) {
+            switchToTempFile();
+        }
+        if (tempOut != null) {
+            tempOut.write(b, off, len);
+        } else {
+            buffer.write(b, off, len);
+        }
+    }
+
+    private void switchToTempFile() throws IOException {
+        tempFile = Files.createTempFile(target.toAbsolutePath().getParent(), "." + target.getFileName(), ".tmp");
+        tempOut = new DigestOutputStream(Files.newOutputStream(tempFile), newDigest());
+        buffer.writeTo(tempOut);
+        buffer = null;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (tempOut != null) {
+            tempOut.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        if (tempOut == null) {
+            byte[] content = buffer.toByteArray();
+            buffer = null;
+            if (!isSameContent(content)) {
+                Files.write(target, content);
+            }
+            return;
+        }
+
+        try {
+            tempOut.close();
+            byte[] hash = tempOut.getMessageDigest().digest();
+            if (Files.isRegularFile(target)
+                    && Files.size(target) == Files.size(tempFile)
+                    && Arrays.equals(hash, hash(target))) {
+                return;
+            }
+            try {
+                Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private boolean isSameContent(byte[] content) throws IOException {
+        if (!Files.isRegularFile(target) || Files.size(target) != content.length) {
+            return false;
+        }
+        // the existing file has the same size, so is under the threshold too
+        return Arrays.equals(content, Files.readAllBytes(target));
+    }
+
+    private static byte[] hash(Path file) throws IOException {
+        MessageDigest digest = newDigest();
+        byte[] chunk = new byte[BUFFER_SIZE];
+        try (InputStream in = Files.newInputStream(file)) {
+            int n;
+            while ((n = in.read(chunk)) != -1) {
+                digest.update(chunk, 0, n);
+            }
+        }
+        return digest.digest();
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
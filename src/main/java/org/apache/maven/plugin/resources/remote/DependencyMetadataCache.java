@@ -0,0 +1,270 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugin.resources.remote;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.License;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Organization;
+
+/**
+ * Persistent cache of the dependency metadata the templates use: name, url, description, inception year, organization
+ * and licenses. Entries are keyed by the dependency coordinates and hold the checksum of the POM and parent POMs they
+ * were computed from and of the properties used to interpolate them, so an entry is only used while these are
+ * unchanged.
+ * <p>
+ * The cache directory can be shared by concurrent builds: entries are written to a temporary file that is atomically
+ * moved in place, so readers either see a complete entry or none. Once the directory holds more than the maximum number
+ * of entries, the least recently used ones are evicted.
+ */
+final class DependencyMetadataCache {
+    private static final String ENTRY_SUFFIX = ".properties";
+
+    private final Path directory;
+
+    private final int maxEntries;
+
+    /**
+     * Estimate of the number of entries, counted on first write and then maintained by all the instances of the
+     * session using the same directory.
+     */
+    private final AtomicInteger entries;
+
+    private DependencyMetadataCache(Path directory, int maxEntries, AtomicInteger entries) {
+        this.directory = directory;
+        this.maxEntries = maxEntries;
+        this.entries = entries;
+    }
+
+    /**
+     * Returns a cache in the given directory, sharing its count of entries with the other executions of the session,
+     * so that the directory is only listed once per session.
+     */
+    static DependencyMetadataCache of(MavenSession session, Path directory, int maxEntries) {
+        // the class itself is the key, so that different plugin versions in one build do not clash
+        EntryCounts counts = (EntryCounts) session.getRepositorySession()
+                .getData()
+                .computeIfAbsent(EntryCounts.class, EntryCounts::new);
+        AtomicInteger entries =
+                counts.counts.computeIfAbsent(directory.toAbsolutePath().normalize(), d -> new AtomicInteger(-1));
+        return new DependencyMetadataCache(directory, maxEntries, entries);
+    }
+
+    /**
+     * @return the cached metadata of the given coordinates, or <code>null</code> if there is none for this checksum
+     */
+    Model get(String groupId, String artifactId, String version, String checksum) {
+        Path entry = entry(groupId, artifactId, version);
+        Properties props = new Properties();
+        try (InputStream in = Files.newInputStream(entry)) {
+            props.load(in);
+        } catch (IOException e) {
+            // missing, or evicted while reading by a concurrent build
+            return null;
+        }
+        if (!checksum.equals(props.getProperty("checksum"))) {
+            return null;
+        }
+
+        try {
+            // record the use for eviction
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // not a problem, the entry will just be evicted earlier
+        }
+
+        Model model = new Model();
+        model.setGroupId(groupId);
+        model.setArtifactId(artifactId);
+        model.setVersion(version);
+        model.setPackaging(props.getProperty("packaging"));
+        model.setName(props.getProperty("name"));
+        model.setUrl(props.getProperty("url"));
+        model.setDescription(props.getProperty("description"));
+        model.setInceptionYear(props.getProperty("inceptionYear"));
+
+        if (props.containsKey("organization.name") || props.containsKey("organization.url")) {
+            Organization organization = new Organization();
+            organization.setName(props.getProperty("organization.name"));
+            organization.setUrl(props.getProperty("organization.url"));
+            model.setOrganization(organization);
+        }
+
+        int licenses = Integer.parseInt(props.getProperty("licenses", "0"));
+        for (int i = 0; i < licenses; i++) {
+            License license = new License();
+            license.setName(props.getProperty("license." + i + ".name"));
+            license.setUrl(props.getProperty("license." + i + ".url"));
+            license.setDistribution(props.getProperty("license." + i + ".distribution"));
+            license.setComments(props.getProperty("license." + i + ".comments"));
+            model.addLicense(license);
+        }
+        return model;
+    }
+
+    /**
+     * Stores the metadata of the given (fully built) model.
+     */
+    void put(String groupId, String artifactId, String version, String checksum, Model model) throws IOException {
+        Properties props = new Properties();
+        props.setProperty("checksum", checksum);
+        setIfNotNull(props, "packaging", model.getPackaging());
+        setIfNotNull(props, "name", model.getName());
+        setIfNotNull(props, "url", model.getUrl());
+        setIfNotNull(props, "description", model.getDescription());
+        setIfNotNull(props, "inceptionYear", model.getInceptionYear());
+
+        if (model.getOrganization() != null) {
+            setIfNotNull(props, "organization.name", model.getOrganization().getName());
+            setIfNotNull(props, "organization.url", model.getOrganization().getUrl());
+        }
+
+        List<License> licenses = model.getLicenses();
+        props.setProperty("licenses", String.valueOf(licenses.size()));
+        for (int i = 0; i < licenses.size(); i++) {
+            License license = licenses.get(i);
+            setIfNotNull(props, "license." + i + ".name", license.getName());
+            setIfNotNull(props, "license." + i + ".url", license.getUrl());
+            setIfNotNull(props, "license." + i + ".distribution", license.getDistribution());
+            setIfNotNull(props, "license." + i + ".comments", license.getComments());
+        }
+
+        Path entry = entry(groupId, artifactId, version);
+        Files.createDirectories(entry.getParent());
+        boolean added = !Files.exists(entry);
+
+        Path tmp = Files.createTempFile(entry.getParent(), entry.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                props.store(out, groupId + ':' + artifactId + ':' + version);
+            }
+            try {
+                Files.move(tmp, entry, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, entry, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+
+        if (added) {
+            // the first count already includes the new entry
+            entries.compareAndSet(-1, listEntries().size() - 1);
+            if (entries.incrementAndGet() > maxEntries) {
+                evict();
+            }
+        }
+    }
+
+    private static void setIfNotNull(Properties props, String key, String value) {
+        if (value != null) {
+            props.setProperty(key, value);
+        }
+    }
+
+    private Path entry(String groupId, String artifactId, String version) {
+        return directory.resolve(groupId).resolve(artifactId).resolve(version + ENTRY_SUFFIX);
+    }
+
+    /**
+     * Removes the least recently used entries, down to 90% of the maximum to not evict on every write.
+     */
+    private void evict() throws IOException {
+        // the count is shared by the instances of the directory
+        synchronized (entries) {
+            List<Path> all = listEntries();
+            if (all.size() <= maxEntries) {
+                entries.set(all.size());
+                return;
+            }
+
+            Map<Path, FileTime> times = new HashMap<>();
+            for (Path path : all) {
+                times.put(path, lastModified(path));
+            }
+            all.sort(Comparator.comparing(times::get));
+
+            int toRemove = all.size() - (maxEntries - maxEntries / 10);
+            for (int i = 0; i < toRemove; i++) {
+                Files.deleteIfExists(all.get(i));
+            }
+            entries.set(all.size() - toRemove);
+        }
+    }
+
+    private static FileTime lastModified(Path path) throws IOException {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (NoSuchFileException e) {
+            // removed by a concurrent build
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private List<Path> listEntries() throws IOException {
+        List<Path> result = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return result;
+        }
+        Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (file.getFileName().toString().endsWith(ENTRY_SUFFIX)) {
+                    result.add(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return result;
+    }
+
+    /**
+     * The entry counts of the cache directories used in a session.
+     */
+    private static final class EntryCounts {
+        private final ConcurrentMap<Path, AtomicInteger> counts = new ConcurrentHashMap<>();
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugin.resources.remote;
+
+import java.io.File;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.project.ProjectBuildingException;
+import org.apache.maven.project.ProjectBuildingRequest;
+
+/**
+ * Session wide cache of the dependency projects built for the templates, so that a dependency shared by many modules
+ * of a reactor is built only once. Invalid project models are remembered as well: they are neither rebuilt nor
+ * reported again.
+ * <p>
+ * The cached projects are shared by the modules and must not be changed: each module works on copies of them, with
+ * its own artifacts. The cache is thread safe; concurrent requests for the same project wait for a single build. It
+ * also holds the thread pool the projects are built with, shared by the modules.
+ */
+final class DependencyProjectCache {
+    /**
+     * Builds a project on cache miss.
+     */
+    interface ProjectLoader {
+        MavenProject load() throws ProjectBuildingException;
+    }
+
+    private final ConcurrentMap<String, FutureTask<MavenProject>> projects = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private ExecutorService executor;
+
+    /**
+     * Returns the cache of the given session, creating it on first use.
+     */
+    static DependencyProjectCache of(MavenSession session) {
+        // the class itself is the key, so that different plugin versions in one build do not clash
+        return (DependencyProjectCache) session.getRepositorySession()
+                .getData()
+                .computeIfAbsent(DependencyProjectCache.class, DependencyProjectCache::new);
+    }
+
+    /**
+     * The cache key of a project: its coordinates, how it is resolved and the settings of the request that affect the
+     * build result. System and user properties are not part of it, as they do not change during a session.
+     *
+     * @param metadataCache the directory of the persistent metadata cache the project may come from, or
+     *            <code>null</code> if it is always built
+     */
+    static String key(Artifact artifact, ProjectBuildingRequest request, String resolution, File metadataCache) {
+        StringBuilder key = new StringBuilder(128);
+        key.append(artifact.getGroupId()).append(':').append(artifact.getArtifactId());
+        key.append(':').append(artifact.getVersion());
+        key.append(" resolution=").append(resolution);
+        if (metadataCache != null) {
+            // projects read from the metadata cache only hold part of the model
+            key.append(" metadataCache=").append(metadataCache.getAbsolutePath());
+        }
+        key.append(" validation=").append(request.getValidationLevel());
+        key.append(" plugins=").append(request.isProcessPlugins());
+        if (request.getRemoteRepositories() != null) {
+            for (ArtifactRepository repository : request.getRemoteRepositories()) {
+                key.append(' ').append(repository.getId()).append('=').append(repository.getUrl());
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * Returns the cached project for the given key, building it with the loader on first request.
+     *
+     * @throws ProjectBuildingException if the project model is invalid, now or on a previous request
+     */
+    MavenProject get(String key, ProjectLoader loader) throws ProjectBuildingException {
+        FutureTask<MavenProject> task = projects.get(key);
+        if (task == null) {
+            FutureTask<MavenProject> newTask = new FutureTask<>(loader::load);
+            task = projects.putIfAbsent(key, newTask);
+            if (task == null) {
+                task = newTask;
+                misses.incrementAndGet();
+                task.run();
+            } else {
+                hits.incrementAndGet();
+            }
+        } else {
+            hits.incrementAndGet();
+        }
+
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while building project " + key, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof ProjectBuildingException) {
+                throw (ProjectBuildingException) cause;
+            }
+            // unexpected failures are not remembered, a later request will try again
+            projects.remove(key, task);
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Error building project " + key, cause);
+        }
+    }
+
+    /**
+     * Returns the thread pool building the projects for all the executions of the session, so that concurrent modules
+     * do not each start their own threads. The pool is sized by the first execution using it; its threads stop when
+     * idle.
+     */
+    synchronized ExecutorService getExecutor(int threads) {
+        if (executor == null) {
+            AtomicInteger count = new AtomicInteger();
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                    threads, threads, 10, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                        Thread thread = new Thread(runnable, "remote-resources-project-" + count.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            pool.allowCoreThreadTimeOut(true);
+            executor = pool;
+        }
+        return executor;
+    }
+
+    long getHits() {
+        return hits.get();
+    }
+
+    long getMisses() {
+        return misses.get();
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugin.resources.remote;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * SHA-256 digest of a sequence of values and file contents, used to detect changes of inputs.
+ */
+final class Fingerprint {
+    private final MessageDigest digest;
+
+    private final byte[] buffer = new byte[8192];
+
+    Fingerprint() {
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Adds a value, <code>null</code> being distinct from an empty value.
+     */
+    Fingerprint add(String value) {
+        if (value == null) {
+            digest.update((byte) 1);
+        } else {
+            digest.update((byte) 0);
+            digest.update(value.getBytes(StandardCharsets.UTF_8));
+            // separator, so that "ab" + "c" differs from "a" + "bc"
+            digest.update((byte) 0);
+        }
+        return this;
+    }
+
+    /**
+     * Adds a content.
+     */
+    Fingerprint addBytes(byte[] content) {
+        add(String.valueOf(content.length));
+        digest.update(content);
+        return this;
+    }
+
+    /**
+     * Adds the content of a file, or a marker if it does not exist.
+     */
+    Fingerprint addFile(File file) throws IOException {
+        if (file == null || !file.isFile()) {
+            return add(null);
+        }
+        add(String.valueOf(file.length()));
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            update(in);
+        }
+        return this;
+    }
+
+    private void update(InputStream in) throws IOException {
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            digest.update(buffer, 0, n);
+        }
+    }
+
+    /**
+     * Adds the content of a resource, or a marker if it is <code>null</code>.
+     */
+    Fingerprint addResource(URL url) throws IOException {
+        if (url == null) {
+            return add(null);
+        }
+        add("");
+        try (InputStream in = url.openStream()) {
+            update(in);
+        }
+        return this;
+    }
+
+    /**
+     * Adds the relative paths and contents of all the files of a directory.
+     */
+    Fingerprint addDirectory(File directory) throws IOException {
+        if (directory == null || !directory.isDirectory()) {
+            return add(null);
+        }
+        Path root = directory.toPath();
+        for (Path file : listFiles(root)) {
+            add(root.relativize(file).toString().replace(File.separatorChar, '/'));
+            addFile(file.toFile());
+        }
+        return this;
+    }
+
+    private static List<Path> listFiles(Path root) throws IOException {
+        try (Stream<Path> walk = Files.walk(root)) {
+            return walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * @return the hexadecimal digest of everything added; the fingerprint must not be used afterwards
+     */
+    String hash() {
+        StringBuilder hex = new StringBuilder(64);
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b & 0xff));
+        }
+        return hex.toString();
+    }
+}
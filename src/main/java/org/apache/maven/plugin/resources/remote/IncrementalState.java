@@ -0,0 +1,256 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugin.resources.remote;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * State of a processing saved for the <code>incremental</code> mode: the fingerprint of its inputs, the local files it
+ * looked for, the outputs it generated and the resource excludes it added to the project. For each rendered resource,
+ * it also holds the hash of the inputs of that resource alone, with the context keys and included resources they
+ * cover.
+ */
+final class IncrementalState {
+    private static final String FINGERPRINT = "fingerprint";
+
+    private static final String INPUT = "input.";
+
+    private static final String OUTPUT = "output.";
+
+    private static final String EXCLUDE = "exclude.";
+
+    private static final String RENDER = "render.";
+
+    private static final String HASH = ".hash";
+
+    private static final String KEYS = ".keys";
+
+    private static final String INCLUDES = ".includes";
+
+    /**
+     * Inputs of a rendered resource.
+     */
+    static final class Render {
+        private final String hash;
+
+        private final List<String> keys;
+
+        private final List<String> includes;
+
+        Render(String hash, Collection<String> keys, Collection<String> includes) {
+            this.hash = hash;
+            this.keys = new ArrayList<>(keys);
+            this.includes = new ArrayList<>(includes);
+        }
+
+        String getHash() {
+            return hash;
+        }
+
+        /**
+         * @return the context keys read by the rendering
+         */
+        List<String> getKeys() {
+            return keys;
+        }
+
+        /**
+         * @return the resources included by the rendering
+         */
+        List<String> getIncludes() {
+            return includes;
+        }
+    }
+
+    private final String fingerprint;
+
+    private final Map<String, String> inputs = new TreeMap<>();
+
+    private final Map<String, String> outputs = new TreeMap<>();
+
+    private final List<String[]> excludes = new ArrayList<>();
+
+    private final Map<String, Render> renders = new TreeMap<>();
+
+    IncrementalState(String fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    String getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Records a local file that was looked for, whether it exists or not.
+     */
+    synchronized void addInput(File file) {
+        inputs.put(file.getAbsolutePath(), stamp(file));
+    }
+
+    /**
+     * Records an exclude added to a resource of the project.
+     */
+    synchronized void addExclude(String directory, String name) {
+        excludes.add(new String[] {directory, name});
+    }
+
+    /**
+     * @return the excludes added to the project resources, as pairs of directory and pattern
+     */
+    List<String[]> getExcludes() {
+        return excludes;
+    }
+
+    /**
+     * Records the inputs of a rendered resource.
+     */
+    synchronized void addRender(String name, Render render) {
+        renders.put(name, render);
+    }
+
+    /**
+     * @return the inputs of the given rendered resource, or <code>null</code> if they are unknown
+     */
+    Render getRender(String name) {
+        return renders.get(name);
+    }
+
+    /**
+     * @return <code>true</code> if the given output is still the one recorded in this state
+     */
+    boolean isOutputUnchanged(File outputDirectory, String name) {
+        String stamp = outputs.get(name);
+        return stamp != null && stamp.equals(stamp(new File(outputDirectory, name)));
+    }
+
+    /**
+     * Records all the files of the output directory.
+     */
+    void addOutputs(File outputDirectory) throws IOException {
+        if (!outputDirectory.isDirectory()) {
+            return;
+        }
+        Path root = outputDirectory.toPath();
+        try (Stream<Path> walk = Files.walk(root)) {
+            for (Path output : (Iterable<Path>) walk.filter(Files::isRegularFile)::iterator) {
+                String name = root.relativize(output).toString().replace(File.separatorChar, '/');
+                outputs.put(name, stamp(output.toFile()));
+            }
+        }
+    }
+
+    /**
+     * @return the first local file or output that changed since this state was saved, or <code>null</code> if none did
+     */
+    File findChange(File outputDirectory) {
+        for (Map.Entry<String, String> input : inputs.entrySet()) {
+            File file = new File(input.getKey());
+            if (!input.getValue().equals(stamp(file))) {
+                return file;
+            }
+        }
+        for (Map.Entry<String, String> output : outputs.entrySet()) {
+            File file = new File(outputDirectory, output.getKey());
+            if (!output.getValue().equals(stamp(file))) {
+                return file;
+            }
+        }
+        return null;
+    }
+
+    private static String stamp(File file) {
+        return file.isFile() ? file.length() + ":" + file.lastModified() : "missing";
+    }
+
+    static IncrementalState load(File stateFile) throws IOException {
+        Properties props = new Properties();
+        try (InputStream in = Files.newInputStream(stateFile.toPath())) {
+            props.load(in);
+        }
+
+        IncrementalState state = new IncrementalState(props.getProperty(FINGERPRINT));
+        for (String key : props.stringPropertyNames()) {
+            if (key.startsWith(INPUT)) {
+                state.inputs.put(key.substring(INPUT.length()), props.getProperty(key));
+            } else if (key.startsWith(OUTPUT)) {
+                state.outputs.put(key.substring(OUTPUT.length()), props.getProperty(key));
+            } else if (key.startsWith(RENDER) && key.endsWith(HASH)) {
+                String name = key.substring(RENDER.length(), key.length() - HASH.length());
+                state.renders.put(
+                        name,
+                        new Render(
+                                props.getProperty(key),
+                                split(props.getProperty(RENDER + name + KEYS), ","),
+                                split(props.getProperty(RENDER + name + INCLUDES), "|")));
+            }
+        }
+        for (int i = 0; props.containsKey(EXCLUDE + i + ".directory"); i++) {
+            state.addExclude(props.getProperty(EXCLUDE + i + ".directory"), props.getProperty(EXCLUDE + i + ".name"));
+        }
+        return state;
+    }
+
+    private static List<String> split(String value, String separator) {
+        List<String> result = new ArrayList<>();
+        if (value != null && !value.isEmpty()) {
+            Collections.addAll(result, value.split(Pattern.quote(separator)));
+        }
+        return result;
+    }
+
+    void save(File stateFile) throws IOException {
+        Properties props = new Properties();
+        props.setProperty(FINGERPRINT, fingerprint);
+        for (Map.Entry<String, String> input : inputs.entrySet()) {
+            props.setProperty(INPUT + input.getKey(), input.getValue());
+        }
+        for (Map.Entry<String, String> output : outputs.entrySet()) {
+            props.setProperty(OUTPUT + output.getKey(), output.getValue());
+        }
+        for (int i = 0; i < excludes.size(); i++) {
+            props.setProperty(EXCLUDE + i + ".directory", excludes.get(i)[0]);
+            props.setProperty(EXCLUDE + i + ".name", excludes.get(i)[1]);
+        }
+        for (Map.Entry<String, Render> render : renders.entrySet()) {
+            String name = render.getKey();
+            props.setProperty(RENDER + name + HASH, render.getValue().getHash());
+            props.setProperty(RENDER + name + KEYS, String.join(",", render.getValue().getKeys()));
+            props.setProperty(RENDER + name + INCLUDES, String.join("|", render.getValue().getIncludes()));
+        }
+
+        Files.createDirectories(stateFile.getParentFile().toPath());
+        try (OutputStream out = Files.newOutputStream(stateFile.toPath())) {
+            props.store(out, null);
+        }
+    }
+}
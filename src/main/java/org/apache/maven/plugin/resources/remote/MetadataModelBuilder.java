@@ -0,0 +1,287 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugin.resources.remote;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.maven.model.License;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Organization;
+import org.apache.maven.model.Parent;
+
+/**
+ * Builds the metadata templates use (name, url, description, inception year, organization and licenses) of a project
+ * from the raw models of its {@link PomChain}, without building the project: only these fields are inherited, following
+ * the Maven inheritance rules, and then interpolated.
+ * <p>
+ * Profiles, imports and other model building features are ignored, so the result may differ from the one of a full
+ * build for POMs relying on them.
+ */
+final class MetadataModelBuilder {
+    /**
+     * Guards against expressions referencing themselves.
+     */
+    private static final int MAX_DEPTH = 10;
+
+    private final Model model;
+
+    private final Properties modelProperties;
+
+    private final Properties userProperties;
+
+    private final Properties systemProperties;
+
+    private MetadataModelBuilder(
+            Model model, Properties modelProperties, Properties userProperties, Properties systemProperties) {
+        this.model = model;
+        this.modelProperties = modelProperties;
+        this.userProperties = userProperties;
+        this.systemProperties = systemProperties;
+    }
+
+    /**
+     * @return the metadata model, or <code>null</code> if it uses an expression that can only be resolved by building
+     *         the project
+     */
+    static Model build(PomChain chain, Properties userProperties, Properties systemProperties) {
+        List<Model> models = chain.getModels();
+
+        // inherit from the root parent down to the project itself
+        Model inherited = null;
+        Properties properties = new Properties();
+        boolean appendPath = true;
+        for (int i = models.size() - 1; i >= 0; i--) {
+            Model raw = models.get(i);
+            inherited = inherit(raw, inherited, appendPath);
+            properties.putAll(raw.getProperties());
+            if (raw.getChildProjectUrlInheritAppendPath() != null) {
+                appendPath = raw.isChildProjectUrlInheritAppendPath();
+            }
+        }
+        if (inherited.getPackaging() == null) {
+            // the packaging is not inherited, its default is the one of the super POM
+            inherited.setPackaging("jar");
+        }
+
+        MetadataModelBuilder builder = new MetadataModelBuilder(
+                inherited,
+                properties,
+                userProperties != null ? userProperties : new Properties(),
+                systemProperties != null ? systemProperties : new Properties());
+        return builder.interpolate() ? inherited : null;
+    }
+
+    private static Model inherit(Model raw, Model parent, boolean appendPath) {
+        Model model = new Model();
+        Parent parentRef = raw.getParent();
+        model.setGroupId(raw.getGroupId() != null || parentRef == null ? raw.getGroupId() : parentRef.getGroupId());
+        model.setArtifactId(raw.getArtifactId());
+        model.setVersion(raw.getVersion() != null || parentRef == null ? raw.getVersion() : parentRef.getVersion());
+        model.setPackaging(raw.getPackaging());
+        if (parentRef != null) {
+            model.setParent(parentRef.clone());
+        }
+
+        // the name is not inherited
+        model.setName(raw.getName());
+        model.setDescription(raw.getDescription());
+        model.setInceptionYear(raw.getInceptionYear());
+        model.setUrl(raw.getUrl());
+        if (raw.getOrganization() != null) {
+            model.setOrganization(raw.getOrganization().clone());
+        }
+        for (License license : raw.getLicenses()) {
+            model.addLicense(license.clone());
+        }
+
+        if (parent != null) {
+            if (model.getDescription() == null) {
+                model.setDescription(parent.getDescription());
+            }
+            if (model.getInceptionYear() == null) {
+                model.setInceptionYear(parent.getInceptionYear());
+            }
+            if (model.getUrl() == null && parent.getUrl() != null) {
+                model.setUrl(appendPath ? appendPath(parent.getUrl(), model.getArtifactId()) : parent.getUrl());
+            }
+            if (model.getOrganization() == null && parent.getOrganization() != null) {
+                model.setOrganization(parent.getOrganization().clone());
+            }
+            if (model.getLicenses().isEmpty()) {
+                for (License license : parent.getLicenses()) {
+                    model.addLicense(license.clone());
+                }
+            }
+        }
+        return model;
+    }
+
+    private static String appendPath(String url, String path) {
+        return url.endsWith("/") ? url + path : url + '/' + path;
+    }
+
+    /**
+     * Interpolates the fields of the model in place.
+     *
+     * @return <code>false</code> if one of them could not be interpolated
+     */
+    private boolean interpolate() {
+        // coordinates first, as the other fields may refer to them
+        List<String> values = new ArrayList<>();
+        values.add(model.getGroupId());
+        values.add(model.getVersion());
+        values.add(model.getName());
+        values.add(model.getUrl());
+        values.add(model.getDescription());
+        values.add(model.getInceptionYear());
+        Organization organization = model.getOrganization();
+        if (organization != null) {
+            values.add(organization.getName());
+            values.add(organization.getUrl());
+        }
+        for (License license : model.getLicenses()) {
+            values.add(license.getName());
+            values.add(license.getUrl());
+            values.add(license.getDistribution());
+            values.add(license.getComments());
+        }
+
+        List<String> interpolated = new ArrayList<>(values.size());
+        for (String value : values) {
+            String result = interpolate(value, 0);
+            if (value != null && result == null) {
+                return false;
+            }
+            interpolated.add(result);
+        }
+
+        int i = 0;
+        model.setGroupId(interpolated.get(i++));
+        model.setVersion(interpolated.get(i++));
+        model.setName(interpolated.get(i++));
+        model.setUrl(interpolated.get(i++));
+        model.setDescription(interpolated.get(i++));
+        model.setInceptionYear(interpolated.get(i++));
+        if (organization != null) {
+            organization.setName(interpolated.get(i++));
+            organization.setUrl(interpolated.get(i++));
+        }
+        for (License license : model.getLicenses()) {
+            license.setName(interpolated.get(i++));
+            license.setUrl(interpolated.get(i++));
+            license.setDistribution(interpolated.get(i++));
+            license.setComments(interpolated.get(i++));
+        }
+        return true;
+    }
+
+    /**
+     * @return the interpolated value, or <code>null</code> if it is <code>null</code> or uses an unknown expression
+     */
+    private String interpolate(String value, int depth) {
+        if (value == null || depth > MAX_DEPTH) {
+            return null;
+        }
+        int start = value.indexOf("${");
+        if (start < 0) {
+            return value;
+        }
+
+        StringBuilder result = new StringBuilder(value.length());
+        int end = -1;
+        while (start >= 0) {
+            result.append(value, end + 1, start);
+            end = value.indexOf('}', start);
+            if (end < 0) {
+                // not an expression
+                end = start - 1;
+                break;
+            }
+            String resolved = interpolate(lookup(value.substring(start + 2, end)), depth + 1);
+            if (resolved == null) {
+                return null;
+            }
+            result.append(resolved);
+            start = value.indexOf("${", end + 1);
+        }
+        result.append(value, end + 1, value.length());
+        return result.toString();
+    }
+
+    private String lookup(String expression) {
+        String field = null;
+        if (expression.startsWith("project.")) {
+            field = expression.substring("project.".length());
+        } else if (expression.startsWith("pom.")) {
+            field = expression.substring("pom.".length());
+        }
+        if (field != null) {
+            return getField(field);
+        }
+
+        if (expression.startsWith("env.")) {
+            return System.getenv(expression.substring("env.".length()));
+        }
+
+        // same precedence as in Maven model interpolation
+        String value = userProperties.getProperty(expression);
+        if (value == null) {
+            value = modelProperties.getProperty(expression);
+        }
+        if (value == null) {
+            value = systemProperties.getProperty(expression);
+        }
+        return value;
+    }
+
+    private String getField(String field) {
+        switch (field) {
+            case "groupId":
+                return model.getGroupId();
+            case "artifactId":
+                return model.getArtifactId();
+            case "version":
+                return model.getVersion();
+            case "packaging":
+                return model.getPackaging();
+            case "name":
+                return model.getName();
+            case "url":
+                return model.getUrl();
+            case "description":
+                return model.getDescription();
+            case "inceptionYear":
+                return model.getInceptionYear();
+            case "organization.name":
+                return model.getOrganization() != null ? model.getOrganization().getName() : null;
+            case "organization.url":
+                return model.getOrganization() != null ? model.getOrganization().getUrl() : null;
+            case "parent.groupId":
+                return model.getParent() != null ? model.getParent().getGroupId() : null;
+            case "parent.artifactId":
+                return model.getParent() != null ? model.getParent().getArtifactId() : null;
+            case "parent.version":
+                return model.getParent() != null ? model.getParent().getVersion() : null;
+            default:
+                return null;
+        }
+    }
+}
@@ -19,10 +19,13 @@
 package org.apache.maven.plugin.resources.remote;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
 
 import org.apache.maven.model.Dependency;
@@ -74,12 +77,14 @@ public final class ModelUtils {
                 }
             }
 
-            List<Plugin> assembledPlugins = new ArrayList<>();
-
             Map<String, Plugin> childPlugins = childContainer.getPluginsAsMap();
 
+            // the parent plugins in order, the merged child plugins taking the place of their parent
+            Map<String, Plugin> assembledPlugins = new LinkedHashMap<>();
+
             for (Plugin parentPlugin : parentPlugins) {
                 String parentInherited = parentPlugin.getInherited();
+                String key = parentPlugin.getKey();
 
                 // only merge plugin definition from the parent if at least one
                 // of these is true:
@@ -87,15 +92,13 @@ public final class ModelUtils {
                 // 2. the parent's <inherited/> flag is not set
                 // 3. the parent's <inherited/> flag is set to true
                 if (!handleAsInheritance || (parentInherited == null) || Boolean.parseBoolean(parentInherited)) {
-                    Plugin childPlugin = childPlugins.get(parentPlugin.getKey());
-
-                    if ((childPlugin != null) && !assembledPlugins.contains(childPlugin)) {
-                        Plugin assembledPlugin = childPlugin;
+                    Plugin childPlugin = childPlugins.get(key);
 
+                    if ((childPlugin != null) && !assembledPlugins.containsKey(key)) {
                         mergePluginDefinitions(childPlugin, parentPlugin, handleAsInheritance);
 
                         // fix for MNG-2221 (assembly cache was not being populated for later reference):
-                        assembledPlugins.add(assembledPlugin);
+                        assembledPlugins.put(key, childPlugin);
                     }
 
                     // if we're processing this as an inheritance-based merge, and
@@ -106,16 +109,46 @@ public final class ModelUtils {
                     }
                 }
 
-                // very important to use the parentPlugins List, rather than parentContainer.getPlugins()
-                // since this list is a local one, and may have been modified during processing.
-                List<Plugin> results =
-                        ModelUtils.orderAfterMerge(assembledPlugins, parentPlugins, childContainer.getPlugins());
+                assembledPlugins.putIfAbsent(key, parentPlugin);
+            }
 
-                childContainer.setPlugins(results);
+            childContainer.setPlugins(orderAfterMerge(assembledPlugins, childContainer.getPlugins()));
+
+            childContainer.flushPluginMap();
+        }
+    }
 
-                childContainer.flushPluginMap();
+    /**
+     * Inserts the plugins found only in the child before the first plugin following them in the child that is also
+     * in the parent, or at the end when none does, keeping their order. This is the ordering that calling
+     * {@link #orderAfterMerge(List, List, List)} after each parent plugin used to converge to, computed in one pass.
+     *
+     * @param assembledPlugins the parent plugins by key, in order, with the merged child plugins in their place
+     * @param childPlugins the plugins of the child, in order
+     */
+    private static List<Plugin> orderAfterMerge(Map<String, Plugin> assembledPlugins, List<Plugin> childPlugins) {
+        Map<String, List<Plugin>> childOnlyBefore = new HashMap<>();
+        List<Plugin> childOnly = new ArrayList<>();
+        for (Plugin childPlugin : childPlugins) {
+            String key = childPlugin.getKey();
+            if (!assembledPlugins.containsKey(key)) {
+                childOnly.add(childPlugin);
+            } else if (!childOnly.isEmpty()) {
+                childOnlyBefore.computeIfAbsent(key, k -> new ArrayList<>()).addAll(childOnly);
+                childOnly.clear();
+            }
+        }
+
+        List<Plugin> results = new ArrayList<>(assembledPlugins.size() + childPlugins.size());
+        for (Map.Entry<String, Plugin> assembledPlugin : assembledPlugins.entrySet()) {
+            List<Plugin> before = childOnlyBefore.get(assembledPlugin.getKey());
+            if (before != null) {
+                results.addAll(before);
             }
+            results.add(assembledPlugin.getValue());
         }
+        results.addAll(childOnly);
+        return results;
     }
 
     public static List<Plugin> orderAfterMerge(
@@ -271,8 +304,10 @@ public final class ModelUtils {
 
         List<Repository> repositories = new ArrayList<>(dominant);
 
+        // repositories are equal by id
+        Set<Repository> ids = new HashSet<>(dominant);
         for (Repository repository : recessive) {
-            if (!repositories.contains(repository)) {
+            if (ids.add(repository)) {
                 repositories.add(repository);
             }
         }
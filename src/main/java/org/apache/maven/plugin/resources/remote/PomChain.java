@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugin.resources.remote;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Parent;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.resolution.ArtifactRequest;
+import org.eclipse.aether.resolution.ArtifactResolutionException;
+
+/**
+ * The raw (neither inherited nor interpolated) models of a POM and of all its parents, read straight from the
+ * repository without building the project.
+ */
+final class PomChain {
+    private final List<File> files;
+
+    private final List<Model> models;
+
+    private PomChain(List<File> files, List<Model> models) {
+        this.files = files;
+        this.models = models;
+    }
+
+    /**
+     * Resolves the POM of the given coordinates and then its parents, up to the root of the hierarchy.
+     */
+    static PomChain resolve(
+            RepositorySystem repoSystem,
+            RepositorySystemSession session,
+            List<RemoteRepository> repositories,
+            String groupId,
+            String artifactId,
+            String version)
+            throws ArtifactResolutionException, IOException, XmlPullParserException {
+        List<File> files = new ArrayList<>();
+        List<Model> models = new ArrayList<>();
+        Set<String> visited = new HashSet<>();
+
+        String g = groupId;
+        String a = artifactId;
+        String v = version;
+        while (visited.add(g + ':' + a + ':' + v)) {
+            ArtifactRequest request =
+                    new ArtifactRequest(new DefaultArtifact(g, a, "pom", v), repositories, "remote-resources");
+            File file = repoSystem.resolveArtifact(session, request).getArtifact().getFile();
+
+            Model model;
+            try (InputStream in = Files.newInputStream(file.toPath())) {
+                model = new MavenXpp3Reader().read(in, false);
+            }
+            files.add(file);
+            models.add(model);
+
+            Parent parent = model.getParent();
+            if (parent == null
+                    || parent.getGroupId() == null
+                    || parent.getArtifactId() == null
+                    || parent.getVersion() == null) {
+                break;
+            }
+            g = parent.getGroupId();
+            a = parent.getArtifactId();
+            v = parent.getVersion();
+        }
+
+        return new PomChain(Collections.unmodifiableList(files), Collections.unmodifiableList(models));
+    }
+
+    /**
+     * @return the POM files, starting with the one of the requested coordinates and ending with the root parent
+     */
+    List<File> getFiles() {
+        return files;
+    }
+
+    /**
+     * @return the raw models, in the same order as {@link #getFiles()}
+     */
+    List<Model> getModels() {
+        return models;
+    }
+
+    /**
+     * @return a checksum of the content of all the POM files of the chain and of the values of the user and system
+     *         properties and environment variables their expressions refer to, as they take part in the interpolation
+     */
+    String checksum(Properties userProperties, Properties systemProperties) throws IOException {
+        Fingerprint fingerprint = new Fingerprint();
+        Set<String> expressions = new TreeSet<>();
+        for (File file : files) {
+            byte[] content = Files.readAllBytes(file.toPath());
+            fingerprint.addBytes(content);
+            collectExpressions(new String(content, StandardCharsets.UTF_8), expressions);
+        }
+
+        for (String expression : expressions) {
+            fingerprint.add(expression);
+            if (expression.startsWith("env.")) {
+                fingerprint.add(System.getenv(expression.substring("env.".length())));
+            } else {
+                fingerprint.add(userProperties != null ? userProperties.getProperty(expression) : null);
+                fingerprint.add(systemProperties != null ? systemProperties.getProperty(expression) : null);
+            }
+        }
+        return fingerprint.hash();
+    }
+
+    private static void collectExpressions(String content, Set<String> expressions) {
+        int start = content.indexOf("${");
+        while (start >= 0) {
+            int end = content.indexOf('}', start);
+            if (end < 0) {
+                break;
+            }
+            expressions.add(content.substring(start + 2, end));
+            start = content.indexOf("${", end + 1);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugin.resources.remote;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.maven.model.Resource;
+import org.codehaus.plexus.util.DirectoryScanner;
+
+/**
+ * Files of the project that may override bundle resources, so that looking for an override no longer probes the file
+ * system. The resource directories are scanned once, honoring their includes and excludes; the base directory, which
+ * may be large, is listed one directory at a time and only the directories looked into.
+ * <p>
+ * Lookups ignore case where the file system does, as the file system probes they replace did.
+ */
+final class ProjectFiles {
+    /**
+     * A resource directory of the project with its files.
+     */
+    static final class ResourceDirectory {
+        private final Resource resource;
+
+        private final File directory;
+
+        private final Set<String> files;
+
+        private ResourceDirectory(Resource resource, File directory, Set<String> files) {
+            this.resource = resource;
+            this.directory = directory;
+            this.files = files;
+        }
+
+        Resource getResource() {
+            return resource;
+        }
+
+        File getDirectory() {
+            return directory;
+        }
+
+        /**
+         * @return whether the directory holds the given file, its path being relative and separated by slashes
+         */
+        boolean contains(String path) {
+            return files.contains(path);
+        }
+    }
+
+    private final List<ResourceDirectory> resourceDirectories = new ArrayList<>();
+
+    private final File basedir;
+
+    private final Map<String, Set<String>> basedirListings = new ConcurrentHashMap<>();
+
+    ProjectFiles(List<Resource> resources, File basedir) {
+        this.basedir = basedir;
+        for (Resource resource : resources) {
+            File directory = new File(resource.getDirectory());
+            if (directory.isDirectory()) {
+                resourceDirectories.add(new ResourceDirectory(resource, directory, scan(resource, directory)));
+            }
+        }
+    }
+
+    private static Set<String> scan(Resource resource, File directory) {
+        DirectoryScanner scanner = new DirectoryScanner();
+        scanner.setBasedir(directory);
+        if (!resource.getIncludes().isEmpty()) {
+            scanner.setIncludes(resource.getIncludes().toArray(new String[0]));
+        }
+        // plain names are excluded to keep overrides out of the project resources, by this plugin or by hand, so
+        // only patterns may hide an override
+        List<String> excludes = new ArrayList<>();
+        for (String exclude : resource.getExcludes()) {
+            if (exclude.indexOf('*') >= 0 || exclude.indexOf('?') >= 0) {
+                excludes.add(exclude);
+            }
+        }
+        scanner.setExcludes(excludes.toArray(new String[0]));
+        scanner.scan();
+
+        Set<String> files = new HashSet<>();
+        for (String file : scanner.getIncludedFiles()) {
+            files.add(file.replace(File.separatorChar, '/'));
+        }
+        return matchingCase(directory, files);
+    }
+
+    /**
+     * @return the given names of files of the directory, in a set ignoring case if the file system does
+     */
+    private static Set<String> matchingCase(File directory, Set<String> names) {
+        for (String name : names) {
+            String other = name.toUpperCase(Locale.ROOT);
+            if (other.equals(name)) {
+                other = name.toLowerCase(Locale.ROOT);
+            }
+            if (!names.contains(other)) {
+                // a single probe tells how the file system compares the names
+                if (new File(directory, other).exists()) {
+                    Set<String> ignoringCase = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+                    ignoringCase.addAll(names);
+                    return ignoringCase;
+                }
+                return names;
+            }
+        }
+        // no name depends on case
+        return names;
+    }
+
+    /**
+     * @return the existing resource directories of the project, in declaration order
+     */
+    List<ResourceDirectory> getResourceDirectories() {
+        return resourceDirectories;
+    }
+
+    /**
+     * @return whether the base directory holds the given file or directory, its path being relative and separated by
+     * slashes
+     */
+    boolean existsInBasedir(String path) {
+        int slash = path.lastIndexOf('/');
+        String parent = slash < 0 ? "" : path.substring(0, slash);
+        return basedirListings.computeIfAbsent(parent, this::list).contains(path.substring(slash + 1));
+    }
+
+    private Set<String> list(String directory) {
+        File file = new File(basedir, directory);
+        String[] names = file.list();
+        return names != null ? matchingCase(file, new HashSet<>(Arrays.asList(names))) : Collections.emptySet();
+    }
+}
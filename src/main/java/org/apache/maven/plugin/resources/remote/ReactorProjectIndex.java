@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugin.resources.remote;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.project.MavenProject;
+import org.eclipse.aether.SessionData;
+
+/**
+ * Index of the reactor projects by <code>groupId:artifactId:version</code>. It is built once per session and
+ * shared by all the executions of the plugin, so that looking up a resource bundle in the reactor does not need to
+ * walk the whole project list.
+ */
+final class ReactorProjectIndex {
+    private final List<MavenProject> projects;
+
+    private final Map<String, MavenProject> projectsByGav;
+
+    private ReactorProjectIndex(List<MavenProject> projects) {
+        this.projects = projects;
+        this.projectsByGav = new HashMap<>();
+        if (projects == null) {
+            return;
+        }
+        for (MavenProject p : projects) {
+            // like the former linear lookup, the last project with a given GAV wins
+            projectsByGav.put(key(p.getGroupId(), p.getArtifactId(), p.getVersion()), p);
+        }
+    }
+
+    /**
+     * Returns the index of the projects of the given session, building it on first use.
+     */
+    static ReactorProjectIndex of(MavenSession session) {
+        // the class itself is the key, so that different plugin versions in one build do not clash
+        SessionData data = session.getRepositorySession().getData();
+        List<MavenProject> projects = session.getProjects();
+
+        ReactorProjectIndex index = (ReactorProjectIndex)
+                data.computeIfAbsent(ReactorProjectIndex.class, () -> new ReactorProjectIndex(projects));
+        if (index.projects != projects) {
+            // the project list of the session changed since the index was built
+            ReactorProjectIndex rebuilt = new ReactorProjectIndex(projects);
+            // if another execution replaced it meanwhile, its index is as good as this one
+            data.set(ReactorProjectIndex.class, index, rebuilt);
+            index = rebuilt;
+        }
+        return index;
+    }
+
+    /**
+     * @return the reactor project with the given coordinates, or <code>null</code> if it is not part of the reactor
+     */
+    MavenProject get(String groupId, String artifactId, String version) {
+        return projectsByGav.get(key(groupId, artifactId, version));
+    }
+
+    private static String key(String groupId, String artifactId, String version) {
+        return groupId + ':' + artifactId + ':' + version;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugin.resources.remote;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.velocity.VelocityContext;
+import org.apache.velocity.app.event.EventCartridge;
+import org.apache.velocity.app.event.IncludeEventHandler;
+import org.apache.velocity.context.Context;
+
+/**
+ * Velocity context wrapping the shared one to record the keys a template reads and the resources it includes.
+ * Values set by the template are kept in this context, so they do not leak to the other templates.
+ */
+final class RecordingContext extends VelocityContext implements IncludeEventHandler {
+    private final Set<String> readKeys = new TreeSet<>();
+
+    private final Set<String> includes = new TreeSet<>();
+
+    RecordingContext(Context context) {
+        super(context);
+        EventCartridge eventCartridge = new EventCartridge();
+        eventCartridge.addIncludeEventHandler(this);
+        attachEventCartridge(eventCartridge);
+    }
+
+    @Override
+    public Object get(String key) {
+        if (key != null) {
+            readKeys.add(key);
+        }
+        return super.get(key);
+    }
+
+    @Override
+    public boolean containsKey(String key) {
+        if (key != null) {
+            readKeys.add(key);
+        }
+        return super.containsKey(key);
+    }
+
+    @Override
+    public String includeEvent(
+            Context context, String includeResourcePath, String currentResourcePath, String directiveName) {
+        includes.add(includeResourcePath);
+        return includeResourcePath;
+    }
+
+    /**
+     * @return the keys read so far, sorted
+     */
+    Set<String> getReadKeys() {
+        return readKeys;
+    }
+
+    /**
+     * @return the resources included so far with <code>#parse</code> or <code>#include</code>, sorted
+     */
+    Set<String> getIncludes() {
+        return includes;
+    }
+}
@@ -18,20 +18,110 @@
  */
 package org.apache.maven.plugin.resources.remote;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
 
 /**
+ * Class loader of the resource bundles. The bundles that are local files, jars or directories, are looked up through a
+ * {@link BundleIndex} instead of being searched one after another.
+ *
  * @author Jason van Zyl
  */
 public class RemoteResourcesClassLoader extends URLClassLoader {
+    private final List<File> bundles = new ArrayList<>();
+
+    private BundleIndex index;
+
     public RemoteResourcesClassLoader(ClassLoader parent) {
         super(new URL[] {}, parent);
     }
 
     @Override
-    public void addURL(URL url) {
-        super.addURL(url);
+    public synchronized void addURL(URL url) {
+        File bundle = null;
+        if ("file".equals(url.getProtocol())) {
+            try {
+                bundle = new File(url.toURI());
+            } catch (URISyntaxException | IllegalArgumentException e) {
+                // not a plain file, left to the URL class loader
+            }
+        }
+        if (bundle == null) {
+            super.addURL(url);
+            return;
+        }
+
+        // indexed again on next lookup
+        try {
+            closeIndex();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to close resource bundles", e);
+        }
+        bundles.add(bundle);
+    }
+
+    @Override
+    public synchronized URL[] getURLs() {
+        List<URL> urls = new ArrayList<>();
+        for (File bundle : bundles) {
+            try {
+                urls.add(bundle.toURI().toURL());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        Collections.addAll(urls, super.getURLs());
+        return urls.toArray(new URL[0]);
+    }
+
+    /**
+     * @return the index of the local bundles, opening them on first use
+     */
+    synchronized BundleIndex getIndex() throws IOException {
+        if (index == null) {
+            index = new BundleIndex(bundles);
+        }
+        return index;
+    }
+
+    private BundleIndex index() {
+        try {
+            return getIndex();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read resource bundles", e);
+        }
+    }
+
+    @Override
+    public URL findResource(String name) {
+        BundleIndex.Entry entry = index().get(name);
+        if (entry != null) {
+            try {
+                return entry.toUrl();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return super.findResource(name);
+    }
+
+    @Override
+    public Enumeration<URL> findResources(String name) throws IOException {
+        List<URL> urls = new ArrayList<>();
+        for (BundleIndex.Entry entry : getIndex().getAll(name)) {
+            urls.add(entry.toUrl());
+        }
+        urls.addAll(Collections.list(super.findResources(name)));
+        return Collections.enumeration(urls);
     }
 
     // don't check the parents for the resources.   Just check the jars
@@ -46,4 +136,36 @@ public class RemoteResourcesClassLoader extends URLClassLoader {
         }
         return url;
     }
+
+    @Override
+    public InputStream getResourceAsStream(String name) {
+        BundleIndex.Entry entry = index().get(name);
+        if (entry != null) {
+            try {
+                return entry.openStream();
+            } catch (IOException e) {
+                return null;
+            }
+        }
+        return super.getResourceAsStream(name);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            synchronized (this) {
+                closeIndex();
+            }
+        }
+    }
+
+    private void closeIndex() throws IOException {
+        if (index != null) {
+            BundleIndex closed = index;
+            index = null;
+            closed.close();
+        }
+    }
 }
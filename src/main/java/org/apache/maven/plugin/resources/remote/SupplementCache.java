@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugin.resources.remote;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.MojoExecutionException;
+
+/**
+ * Session wide cache of the supplement indexes loaded from supplemental models files, keyed by the checksums of the
+ * files, so that modules inheriting the same supplemental models load them only once. The indexes are shared by all
+ * the modules: their models must be cloned before being changed.
+ * <p>
+ * The cache is thread safe; concurrent requests for the same files wait for a single load.
+ */
+final class SupplementCache {
+    /**
+     * Loads the supplements on cache miss.
+     */
+    interface SupplementLoader {
+        SupplementIndex load() throws MojoExecutionException;
+    }
+
+    private final ConcurrentMap<String, FutureTask<SupplementIndex>> supplements = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the cache of the given session, creating it on first use.
+     */
+    static SupplementCache of(MavenSession session) {
+        // the class itself is the key, so that different plugin versions in one build do not clash
+        return (SupplementCache)
+                session.getRepositorySession().getData().computeIfAbsent(SupplementCache.class, SupplementCache::new);
+    }
+
+    /**
+     * The cache key of supplemental models files: the checksums of their contents, in order, as later files override
+     * the supplements of earlier ones.
+     */
+    static String key(Collection<byte[]> contents) {
+        Fingerprint fingerprint = new Fingerprint();
+        for (byte[] content : contents) {
+            fingerprint.addBytes(content);
+        }
+        return fingerprint.hash();
+    }
+
+    /**
+     * Returns the cached supplements for the given key, loading them with the loader on first request.
+     */
+    SupplementIndex get(String key, SupplementLoader loader) throws MojoExecutionException {
+        FutureTask<SupplementIndex> task = supplements.get(key);
+        if (task == null) {
+            FutureTask<SupplementIndex> newTask = new FutureTask<>(loader::load);
+            task = supplements.putIfAbsent(key, newTask);
+            if (task == null) {
+                task = newTask;
+                task.run();
+            }
+        }
+
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while loading supplemental data models", e);
+        } catch (ExecutionException e) {
+            // failures are not remembered, a later request reports them again
+            supplements.remove(key, task);
+            Throwable cause = e.getCause();
+            if (cause instanceof MojoExecutionException) {
+                throw (MojoExecutionException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new MojoExecutionException("Error loading supplemental data models: " + cause, cause);
+        }
+    }
+}
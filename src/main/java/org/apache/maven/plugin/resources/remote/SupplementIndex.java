@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugin.resources.remote;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.artifact.versioning.DefaultArtifactVersion;
+import org.apache.maven.artifact.versioning.InvalidVersionSpecificationException;
+import org.apache.maven.artifact.versioning.VersionRange;
+import org.apache.maven.model.Model;
+import org.apache.maven.plugin.MojoExecutionException;
+
+/**
+ * Index of the supplements by the artifacts they apply to. A supplement applies to the artifact of its
+ * <code>groupId</code> and <code>artifactId</code>, optionally restricted to a version range. Its
+ * <code>groupId</code> may end with <code>.*</code> to apply to all the groups below a prefix, or be <code>*</code>
+ * to apply to all the groups.
+ * <p>
+ * Looking up an artifact chooses the supplement with the most specific <code>groupId</code> whose range contains the
+ * version: an exact one first, then the longest prefix. Among supplements of the same specificity, the last declared
+ * wins. Exact supplements are indexed by <code>groupId:artifactId</code>, prefixes in a trie of group segments, so that
+ * a look-up only goes through the supplements of its artifact.
+ */
+final class SupplementIndex {
+    static final SupplementIndex EMPTY = new SupplementIndex();
+
+    private static final String WILDCARD = "*";
+
+    /**
+     * A supplement read from a supplemental models file.
+     */
+    static final class Entry {
+        private final String versionRange;
+
+        private final Model model;
+
+        private VersionRange range;
+
+        Entry(String versionRange, Model model) {
+            this.versionRange = versionRange;
+            this.model = model;
+        }
+
+        /**
+         * @return the version range the supplement applies to, <code>null</code> for all versions
+         */
+        String getVersionRange() {
+            return versionRange;
+        }
+
+        Model getModel() {
+            return model;
+        }
+
+        private boolean contains(String version) {
+            return range == null || version != null && range.containsVersion(new DefaultArtifactVersion(version));
+        }
+    }
+
+    /**
+     * A node of the trie of group prefixes, holding the supplements applying below its prefix.
+     */
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>();
+
+        private final Map<String, List<Entry>> entries = new HashMap<>();
+    }
+
+    private final List<Entry> entries = new ArrayList<>();
+
+    private final Map<String, List<Entry>> exact = new HashMap<>();
+
+    private final Node prefixes = new Node();
+
+    private SupplementIndex() {}
+
+    /**
+     * Indexes the given supplements, in declaration order.
+     *
+     * @throws MojoExecutionException if the <code>groupId</code> or version range of a supplement is invalid
+     */
+    static SupplementIndex build(List<Entry> entries) throws MojoExecutionException {
+        SupplementIndex index = new SupplementIndex();
+        for (Entry entry : entries) {
+            index.add(entry);
+        }
+        return index;
+    }
+
+    private void add(Entry entry) throws MojoExecutionException {
+        String groupId = entry.model.getGroupId().trim();
+        String artifactId = entry.model.getArtifactId().trim();
+
+        if (entry.versionRange != null && !entry.versionRange.trim().isEmpty()) {
+            String spec = entry.versionRange.trim();
+            // a plain version is a recommendation for Maven, which any version satisfies
+            if (spec.indexOf('[') < 0 && spec.indexOf('(') < 0) {
+                spec = '[' + spec + ']';
+            }
+            try {
+                entry.range = VersionRange.createFromVersionSpec(spec);
+            } catch (InvalidVersionSpecificationException e) {
+                throw new MojoExecutionException("Invalid version range '" + entry.versionRange
+                        + "' of supplement " + groupId + ":" + artifactId + ": " + e.getMessage());
+            }
+        }
+
+        if (groupId.indexOf('*') < 0) {
+            exact.computeIfAbsent(groupId + ":" + artifactId, k -> new ArrayList<>(1)).add(entry);
+        } else {
+            Node node = prefixes;
+            if (!WILDCARD.equals(groupId)) {
+                if (!groupId.endsWith(".*") || groupId.indexOf('*') < groupId.length() - 1) {
+                    throw new MojoExecutionException("Invalid groupId '" + groupId + "' of supplement " + groupId
+                            + ":" + artifactId + ", only a trailing '.*' is supported");
+                }
+                for (String segment : groupId.substring(0, groupId.length() - 2).split("\\.")) {
+                    node = node.children.computeIfAbsent(segment, k -> new Node());
+                }
+            }
+            node.entries.computeIfAbsent(artifactId, k -> new ArrayList<>(1)).add(entry);
+        }
+        entries.add(entry);
+    }
+
+    /**
+     * @return the supplement applying to the given artifact, or <code>null</code> if none does
+     */
+    Model find(String groupId, String artifactId, String version) {
+        Entry found = find(exact.get(groupId + ":" + artifactId), version);
+        if (found == null) {
+            // prefixes only match groups below them, so the last segment is not walked
+            String[] segments = groupId.split("\\.");
+            Node node = prefixes;
+            for (int i = 0; i < segments.length && node != null; i++) {
+                Entry entry = find(node.entries.get(artifactId), version);
+                if (entry != null) {
+                    found = entry;
+                }
+                node = node.children.get(segments[i]);
+            }
+        }
+        return found != null ? found.model : null;
+    }
+
+    private static Entry find(List<Entry> candidates, String version) {
+        if (candidates != null) {
+            for (int i = candidates.size() - 1; i >= 0; i--) {
+                if (candidates.get(i).contains(version)) {
+                    return candidates.get(i);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return all the supplements, in declaration order
+     */
+    List<Entry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+}
@@ -0,0 +1,314 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugin.resources.remote;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.codehaus.plexus.util.xml.pull.EntityReplacementMap;
+import org.codehaus.plexus.util.xml.pull.MXParser;
+import org.codehaus.plexus.util.xml.pull.XmlPullParser;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+
+/**
+ * Reads the supplements of a supplemental models file in a single pass: each <code>project</code> element is bound
+ * to a {@link Model} straight from the parser, without building a DOM of it nor writing it back to text for the
+ * model reader, along with the optional <code>versionRange</code> of its supplement.
+ */
+final class SupplementalModelsReader {
+    private static final String ROOT = "supplementalDataModels";
+
+    private static final String SUPPLEMENT = "supplement";
+
+    private static final String VERSION_RANGE = "versionRange";
+
+    private static final String PROJECT = "project";
+
+    private SupplementalModelsReader() {}
+
+    /**
+     * @return the supplements of the given file, in file order
+     */
+    static List<SupplementIndex.Entry> read(InputStream in) throws IOException, XmlPullParserException {
+        XmlPullParser parser = new MXParser(EntityReplacementMap.defaultEntityReplacementMap);
+        parser.setInput(in, null);
+
+        MavenXpp3Reader modelReader = new MavenXpp3Reader();
+        List<SupplementIndex.Entry> supplements = new ArrayList<>();
+        String versionRange = null;
+        Model model = null;
+        for (int eventType = parser.getEventType();
+                eventType != XmlPullParser.END_DOCUMENT;
+                eventType = parser.next()) {
+            int depth = parser.getDepth();
+            if (eventType == XmlPullParser.END_TAG && depth == 2) {
+                if (model != null) {
+                    supplements.add(new SupplementIndex.Entry(versionRange, model));
+                }
+                versionRange = null;
+                model = null;
+            }
+            if (eventType != XmlPullParser.START_TAG) {
+                continue;
+            }
+            String name = parser.getName();
+            if (depth == 1 && !ROOT.equals(name)) {
+                throw new XmlPullParserException(
+                        "Expected root element '" + ROOT + "' but found '" + name + "'", parser, null);
+            } else if (depth == 2 && !SUPPLEMENT.equals(name)) {
+                throw new XmlPullParserException("Unrecognised tag: '" + name + "'", parser, null);
+            } else if (depth == 3 && VERSION_RANGE.equals(name)) {
+                versionRange = parser.nextText();
+            } else if (depth == 3 && PROJECT.equals(name)) {
+                model = modelReader.read(new ElementParser(parser), true);
+            } else if (depth == 3) {
+                throw new XmlPullParserException("Unrecognised tag: '" + name + "'", parser, null);
+            }
+        }
+        return supplements;
+    }
+
+    /**
+     * View of a parser limited to the current element: the document ends with it, so that a reader of whole
+     * documents stops there and leaves the parser on its end tag.
+     */
+    private static final class ElementParser implements XmlPullParser {
+        private final XmlPullParser parser;
+
+        private int depth;
+
+        private boolean ended;
+
+        ElementParser(XmlPullParser parser) {
+            this.parser = parser;
+            this.depth = parser.getDepth();
+        }
+
+        private boolean atEnd() throws XmlPullParserException {
+            if (!ended && parser.getEventType() == END_TAG && parser.getDepth() == depth) {
+                ended = true;
+            }
+            return ended;
+        }
+
+        @Override
+        public int getEventType() throws XmlPullParserException {
+            return ended ? END_DOCUMENT : parser.getEventType();
+        }
+
+        @Override
+        public int next() throws XmlPullParserException, IOException {
+            return atEnd() ? END_DOCUMENT : parser.next();
+        }
+
+        @Override
+        public int nextToken() throws XmlPullParserException, IOException {
+            return atEnd() ? END_DOCUMENT : parser.nextToken();
+        }
+
+        @Override
+        public int nextTag() throws XmlPullParserException, IOException {
+            if (atEnd()) {
+                throw new XmlPullParserException("Expected start or end tag at end of element", this, null);
+            }
+            return parser.nextTag();
+        }
+
+        @Override
+        public String nextText() throws XmlPullParserException, IOException {
+            return parser.nextText();
+        }
+
+        @Override
+        public void require(int type, String namespace, String name) throws XmlPullParserException, IOException {
+            parser.require(type, namespace, name);
+        }
+
+        @Override
+        public void setFeature(String name, boolean state) throws XmlPullParserException {
+            parser.setFeature(name, state);
+        }
+
+        @Override
+        public boolean getFeature(String name) {
+            return parser.getFeature(name);
+        }
+
+        @Override
+        public void setProperty(String name, Object value) throws XmlPullParserException {
+            parser.setProperty(name, value);
+        }
+
+        @Override
+        public Object getProperty(String name) {
+            return parser.getProperty(name);
+        }
+
+        @Override
+        public void setInput(Reader in) throws XmlPullParserException {
+            parser.setInput(in);
+            wholeDocument();
+        }
+
+        @Override
+        public void setInput(InputStream inputStream, String inputEncoding) throws XmlPullParserException {
+            parser.setInput(inputStream, inputEncoding);
+            wholeDocument();
+        }
+
+        /**
+         * Extends the view to the whole document of a new input.
+         */
+        private void wholeDocument() {
+            depth = 0;
+            ended = false;
+        }
+
+        @Override
+        public String getInputEncoding() {
+            return parser.getInputEncoding();
+        }
+
+        @Override
+        public void defineEntityReplacementText(String entityName, String replacementText)
+                throws XmlPullParserException {
+            parser.defineEntityReplacementText(entityName, replacementText);
+        }
+
+        @Override
+        public int getNamespaceCount(int depth) throws XmlPullParserException {
+            return parser.getNamespaceCount(depth);
+        }
+
+        @Override
+        public String getNamespacePrefix(int pos) throws XmlPullParserException {
+            return parser.getNamespacePrefix(pos);
+        }
+
+        @Override
+        public String getNamespaceUri(int pos) throws XmlPullParserException {
+            return parser.getNamespaceUri(pos);
+        }
+
+        @Override
+        public String getNamespace(String prefix) {
+            return parser.getNamespace(prefix);
+        }
+
+        @Override
+        public int getDepth() {
+            return parser.getDepth();
+        }
+
+        @Override
+        public String getPositionDescription() {
+            return parser.getPositionDescription();
+        }
+
+        @Override
+        public int getLineNumber() {
+            return parser.getLineNumber();
+        }
+
+        @Override
+        public int getColumnNumber() {
+            return parser.getColumnNumber();
+        }
+
+        @Override
+        public boolean isWhitespace() throws XmlPullParserException {
+            return parser.isWhitespace();
+        }
+
+        @Override
+        public String getText() {
+            return parser.getText();
+        }
+
+        @Override
+        public char[] getTextCharacters(int[] holderForStartAndLength) {
+            return parser.getTextCharacters(holderForStartAndLength);
+        }
+
+        @Override
+        public String getNamespace() {
+            return parser.getNamespace();
+        }
+
+        @Override
+        public String getName() {
+            return parser.getName();
+        }
+
+        @Override
+        public String getPrefix() {
+            return parser.getPrefix();
+        }
+
+        @Override
+        public boolean isEmptyElementTag() throws XmlPullParserException {
+            return parser.isEmptyElementTag();
+        }
+
+        @Override
+        public int getAttributeCount() {
+            return parser.getAttributeCount();
+        }
+
+        @Override
+        public String getAttributeNamespace(int index) {
+            return parser.getAttributeNamespace(index);
+        }
+
+        @Override
+        public String getAttributeName(int index) {
+            return parser.getAttributeName(index);
+        }
+
+        @Override
+        public String getAttributePrefix(int index) {
+            return parser.getAttributePrefix(index);
+        }
+
+        @Override
+        public String getAttributeType(int index) {
+            return parser.getAttributeType(index);
+        }
+
+        @Override
+        public boolean isAttributeDefault(int index) {
+            return parser.isAttributeDefault(index);
+        }
+
+        @Override
+        public String getAttributeValue(int index) {
+            return parser.getAttributeValue(index);
+        }
+
+        @Override
+        public String getAttributeValue(String namespace, String name) {
+            return parser.getAttributeValue(namespace, name);
+        }
+    }
+}
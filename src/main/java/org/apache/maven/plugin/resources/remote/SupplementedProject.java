@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugin.resources.remote;
+
+import java.io.File;
+import java.util.List;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.model.CiManagement;
+import org.apache.maven.model.Contributor;
+import org.apache.maven.model.Developer;
+import org.apache.maven.model.IssueManagement;
+import org.apache.maven.model.License;
+import org.apache.maven.model.MailingList;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Organization;
+import org.apache.maven.model.Scm;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * View of a dependency project with a supplement laid over it: the descriptive fields set by the supplement are read
+ * from it, everything else from the project. Neither the project nor the supplement, which are shared by the modules
+ * of the session, is copied or changed.
+ * <p>
+ * As a consequence, {@link #getModel()} returns the model of the project without the supplement: only the getters of
+ * the project serve the supplemented fields.
+ */
+final class SupplementedProject extends MavenProject {
+    private final MavenProject project;
+
+    private final Model supplement;
+
+    private final String version;
+
+    SupplementedProject(MavenProject project, Model supplement, Artifact artifact) {
+        super(project.getModel());
+        this.project = project;
+        this.supplement = supplement;
+        this.version = artifact.getVersion();
+        setArtifact(artifact);
+    }
+
+    @Override
+    public String getVersion() {
+        return version;
+    }
+
+    @Override
+    public String getName() {
+        return supplement.getName() != null ? supplement.getName() : super.getName();
+    }
+
+    @Override
+    public String getDescription() {
+        return supplement.getDescription() != null ? supplement.getDescription() : super.getDescription();
+    }
+
+    @Override
+    public String getUrl() {
+        return supplement.getUrl() != null ? supplement.getUrl() : super.getUrl();
+    }
+
+    @Override
+    public String getInceptionYear() {
+        return supplement.getInceptionYear() != null ? supplement.getInceptionYear() : super.getInceptionYear();
+    }
+
+    @Override
+    public Organization getOrganization() {
+        return supplement.getOrganization() != null ? supplement.getOrganization() : super.getOrganization();
+    }
+
+    @Override
+    public Scm getScm() {
+        return supplement.getScm() != null ? supplement.getScm() : super.getScm();
+    }
+
+    @Override
+    public IssueManagement getIssueManagement() {
+        return supplement.getIssueManagement() != null ? supplement.getIssueManagement() : super.getIssueManagement();
+    }
+
+    @Override
+    public CiManagement getCiManagement() {
+        return supplement.getCiManagement() != null ? supplement.getCiManagement() : super.getCiManagement();
+    }
+
+    @Override
+    public List<License> getLicenses() {
+        return !supplement.getLicenses().isEmpty() ? supplement.getLicenses() : super.getLicenses();
+    }
+
+    @Override
+    public List<Developer> getDevelopers() {
+        return !supplement.getDevelopers().isEmpty() ? supplement.getDevelopers() : super.getDevelopers();
+    }
+
+    @Override
+    public List<Contributor> getContributors() {
+        return !supplement.getContributors().isEmpty() ? supplement.getContributors() : super.getContributors();
+    }
+
+    @Override
+    public List<MailingList> getMailingLists() {
+        return !supplement.getMailingLists().isEmpty() ? supplement.getMailingLists() : super.getMailingLists();
+    }
+
+    @Override
+    public MavenProject getParent() {
+        return project.getParent();
+    }
+
+    @Override
+    public File getFile() {
+        return project.getFile();
+    }
+
+    @Override
+    public File getBasedir() {
+        return project.getBasedir();
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugin.resources.remote;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.maven.execution.MavenSession;
+import org.apache.velocity.Template;
+import org.apache.velocity.exception.ParseErrorException;
+import org.apache.velocity.runtime.RuntimeConstants;
+import org.apache.velocity.runtime.RuntimeInstance;
+import org.apache.velocity.runtime.parser.ParseException;
+import org.apache.velocity.runtime.resource.loader.ClasspathResourceLoader;
+
+/**
+ * Session wide cache of the parsed Velocity templates, so that a template shared by many modules of a reactor is
+ * parsed only once. Templates of the resource bundles are keyed by the checksum of the bundle holding them and their
+ * name, so that different bundles, or different versions of one, never share a template. Local templates, overriding
+ * or appended to bundle resources, are keyed by their path, size and modification time. The cache holds at most
+ * {@link #MAX_TEMPLATES} templates, the least recently used being dropped first.
+ * <p>
+ * The cache also holds the Velocity runtime all the templates are parsed with, which loads bundle templates through
+ * the context class loader of the current thread. Macros defined inline are local to the template defining them.
+ * The cache is thread safe; concurrent requests for the same template wait for a single parsing.
+ */
+final class TemplateCache {
+    static final int MAX_TEMPLATES = 1000;
+
+    private final RuntimeInstance runtime;
+
+    private final Map<String, FutureTask<Template>> templates =
+            new LinkedHashMap<String, FutureTask<Template>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, FutureTask<Template>> eldest) {
+                    return size() > MAX_TEMPLATES;
+                }
+            };
+
+    private final ConcurrentMap<String, String> bundleChecksums = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private TemplateCache() {
+        runtime = new RuntimeInstance();
+        runtime.setProperty("resource.loaders", "classpath");
+        runtime.setProperty("resource.loader.classpath.class", ClasspathResourceLoader.class.getName());
+        // the same name may denote different templates from one execution to another, this cache tells them apart
+        runtime.setProperty("resource.loader.classpath.cache", "false");
+        // the runtime outlives the executions, so a macro defined inline by the template of a bundle must neither be
+        // seen by the templates of other bundles nor hide the macros of the same name they define
+        runtime.setProperty(RuntimeConstants.VM_PERM_INLINE_LOCAL, "true");
+        runtime.init();
+    }
+
+    /**
+     * Returns the cache of the given session, creating it on first use.
+     */
+    static TemplateCache of(MavenSession session) {
+        // the class itself is the key, so that different plugin versions in one build do not clash
+        return (TemplateCache)
+                session.getRepositorySession().getData().computeIfAbsent(TemplateCache.class, TemplateCache::new);
+    }
+
+    /**
+     * Returns the parsed template of the given bundle entry, parsing it on first request. The entry must be the one
+     * the context class loader of the current thread returns for its name.
+     */
+    Template get(BundleIndex.Entry entry, String encoding) throws IOException {
+        return get(key(entry) + ' ' + encoding, entry.getName(), () -> runtime.getTemplate(entry.getName(), encoding));
+    }
+
+    /**
+     * Returns the template of the class path resource with the given name, without caching it. For resources that
+     * are not part of the indexed resource bundles.
+     */
+    Template getUncached(String name, String encoding) {
+        return runtime.getTemplate(name, encoding);
+    }
+
+    /**
+     * Returns the parsed template of the given local file, parsing it on first request or once it changed.
+     */
+    Template get(File file, Charset charset) throws IOException {
+        String key = "file:" + file.getAbsolutePath() + ':' + file.length() + ':' + file.lastModified() + ' '
+                + charset.name();
+        return get(key, file.getPath(), () -> parse(file, charset));
+    }
+
+    private Template parse(File file, Charset charset) throws IOException {
+        Template template = new Template();
+        template.setRuntimeServices(runtime);
+        template.setName(file.getPath());
+        template.setEncoding(charset.name());
+        try (Reader reader = Files.newBufferedReader(file.toPath(), charset)) {
+            template.setData(runtime.parse(reader, template));
+        } catch (ParseException e) {
+            throw new ParseErrorException(e, file.getPath());
+        }
+        template.initDocument();
+        return template;
+    }
+
+    private Template get(String key, String name, Callable<Template> parser) throws IOException {
+        FutureTask<Template> task;
+        boolean parse = false;
+        synchronized (templates) {
+            task = templates.get(key);
+            if (task == null) {
+                task = new FutureTask<>(parser);
+                templates.put(key, task);
+                parse = true;
+            }
+        }
+        if (parse) {
+            misses.incrementAndGet();
+            task.run();
+        } else {
+            hits.incrementAndGet();
+        }
+
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while parsing template " + name, e);
+        } catch (ExecutionException e) {
+            // failures are not remembered, a later request reports them again
+            synchronized (templates) {
+                templates.remove(key, task);
+            }
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Error parsing template " + name, cause);
+        }
+    }
+
+    /**
+     * The key of an entry: the checksum of its jar and its name. Files of directory bundles, like the output of a
+     * module of the reactor, may change during the session, so their own content is hashed instead.
+     */
+    private String key(BundleIndex.Entry entry) throws IOException {
+        File file = entry.getFile();
+        if (file != null) {
+            return new Fingerprint().addFile(file).hash() + ' ' + entry.getName();
+        }
+        File bundle = entry.getBundle();
+        String stamp = bundle.getAbsolutePath() + ':' + bundle.length() + ':' + bundle.lastModified();
+        String checksum = bundleChecksums.get(stamp);
+        if (checksum == null) {
+            checksum = new Fingerprint().addFile(bundle).hash();
+            bundleChecksums.put(stamp, checksum);
+        }
+        return checksum + ' ' + entry.getName();
+    }
+
+    long getHits() {
+        return hits.get();
+    }
+
+    long getMisses() {
+        return misses.get();
+    }
+}
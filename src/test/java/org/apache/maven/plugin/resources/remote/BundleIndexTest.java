@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugin.resources.remote;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.codehaus.plexus.util.IOUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BundleIndexTest {
+    @TempDir
+    File temp;
+
+    @Test
+    void indexesDirectoriesAndJarsInBundleOrder() throws IOException {
+        File directory = directory("directory", "shared.txt", "from directory", "sub/nested.txt", "nested");
+        File jar = jar("bundle.jar", "shared.txt", "from jar", "only-jar.txt", "jar", "folder/", "");
+
+        try (BundleIndex index = new BundleIndex(Arrays.asList(directory, jar))) {
+            BundleIndex.Entry shared = index.get("shared.txt");
+            assertSame(directory, shared.getBundle());
+            assertEquals(new File(directory, "shared.txt"), shared.getFile());
+            assertEquals("from directory", read(shared));
+
+            List<File> bundles = index.getAll("shared.txt").stream()
+                    .map(BundleIndex.Entry::getBundle)
+                    .collect(Collectors.toList());
+            assertEquals(Arrays.asList(directory, jar), bundles);
+
+            BundleIndex.Entry onlyJar = index.get("only-jar.txt");
+            assertSame(jar, onlyJar.getBundle());
+            assertNull(onlyJar.getFile());
+            assertEquals("jar", read(onlyJar));
+
+            // names are separated by slashes and directories are not entries
+            assertNotNull(index.get("sub/nested.txt"));
+            assertNull(index.get("sub"));
+            assertNull(index.get("folder/"));
+            assertEquals(Collections.emptyList(), index.getAll("missing.txt"));
+        }
+    }
+
+    @Test
+    void copyToSkipsTargetsWithSameSizeAndCrc() throws IOException {
+        File directory = directory("directory", "file.txt", "content");
+        File jar = jar("bundle.jar", "entry.txt", "content");
+
+        try (BundleIndex index = new BundleIndex(Arrays.asList(directory, jar))) {
+            for (String name : Arrays.asList("file.txt", "entry.txt")) {
+                BundleIndex.Entry entry = index.get(name);
+                File target = new File(temp, "copy-of-" + name);
+
+                assertTrue(entry.copyTo(target), name);
+                assertEquals("content", read(target));
+                assertFalse(entry.copyTo(target), name);
+
+                // same size, other content
+                write(target, "CONTENT");
+                assertTrue(entry.copyTo(target), name);
+                assertEquals("content", read(target));
+
+                write(target, "longer content");
+                assertTrue(entry.copyTo(target), name);
+                assertEquals("content", read(target));
+            }
+        }
+    }
+
+    @Test
+    void urlsOpenEntriesThroughTheIndex() throws IOException {
+        File directory = directory("directory", "file.txt", "in directory");
+        File jar = jar("bundle.jar", "with space.txt", "in jar");
+
+        try (BundleIndex index = new BundleIndex(Arrays.asList(directory, jar))) {
+            URL fileUrl = index.get("file.txt").toUrl();
+            assertEquals(new File(directory, "file.txt").toURI().toString(), fileUrl.toString());
+            assertEquals("in directory", read(fileUrl));
+
+            URL jarUrl = index.get("with space.txt").toUrl();
+            assertEquals("jar:" + jar.toURI() + "!/with%20space.txt", jarUrl.toString());
+            assertEquals("in jar", read(jarUrl));
+            URLConnection connection = jarUrl.openConnection();
+            assertEquals("in jar".length(), connection.getContentLengthLong());
+        }
+    }
+
+    private File directory(String name, String... files) throws IOException {
+        File directory = new File(temp, name);
+        for (int i = 0; i < files.length; i += 2) {
+            File file = new File(directory, files[i]);
+            file.getParentFile().mkdirs();
+            write(file, files[i + 1]);
+        }
+        return directory;
+    }
+
+    private File jar(String name, String... entries) throws IOException {
+        File jar = new File(temp, name);
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(jar.toPath()))) {
+            for (int i = 0; i < entries.length; i += 2) {
+                out.putNextEntry(new ZipEntry(entries[i]));
+                out.write(entries[i + 1].getBytes(StandardCharsets.UTF_8));
+                out.closeEntry();
+            }
+        }
+        return jar;
+    }
+
+    private static void write(File file, String content) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file.toPath())) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static String read(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+
+    private static String read(BundleIndex.Entry entry) throws IOException {
+        try (InputStream in = entry.openStream()) {
+            return IOUtil.toString(in, "UTF-8");
+        }
+    }
+
+    private static String read(URL url) throws IOException {
+        try (InputStream in = url.openStream()) {
+            return IOUtil.toString(in, "UTF-8");
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugin.resources.remote;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginContainer;
+import org.apache.maven.model.Repository;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ModelUtilsTest {
+    private static final String[] INHERITED = {null, "true", "false"};
+
+    @Test
+    void mergePluginListsKeepsDocumentedOrder() {
+        PluginContainer parent = container("X", "A", "B", "D", "E");
+        PluginContainer child = container("Y", "A", "C", "D", "F");
+
+        ModelUtils.mergePluginLists(child, parent, true);
+
+        assertEquals(Arrays.asList("X", "Y", "A", "B", "C", "D", "E", "F"), artifactIds(child.getPlugins()));
+    }
+
+    @Test
+    void mergePluginListsMatchesIterativeMerge() {
+        Random random = new Random(4242);
+        for (int round = 0; round < 2000; round++) {
+            long seed = random.nextLong();
+            boolean handleAsInheritance = random.nextBoolean();
+
+            PluginContainer expectedParent = randomContainer(new Random(seed), "parent");
+            PluginContainer expectedChild = randomContainer(new Random(~seed), "child");
+            legacyMergePluginLists(expectedChild, expectedParent, handleAsInheritance);
+
+            PluginContainer parent = randomContainer(new Random(seed), "parent");
+            PluginContainer child = randomContainer(new Random(~seed), "child");
+            ModelUtils.mergePluginLists(child, parent, handleAsInheritance);
+
+            assertEquals(describe(expectedChild.getPlugins()), describe(child.getPlugins()), "seed " + seed);
+            assertEquals(describe(expectedParent.getPlugins()), describe(parent.getPlugins()), "seed " + seed);
+        }
+    }
+
+    @Test
+    void mergeRepositoryListsAddsRecessiveRepositoriesOncePerId() {
+        List<Repository> merged = ModelUtils.mergeRepositoryLists(
+                Arrays.asList(repository("a", "dominant"), repository("b", "dominant")),
+                Arrays.asList(
+                        repository("c", "recessive"),
+                        repository("a", "recessive"),
+                        repository("c", "duplicate"),
+                        repository("d", "recessive")));
+
+        List<String> descriptions = new ArrayList<>();
+        for (Repository repository : merged) {
+            descriptions.add(repository.getId() + ":" + repository.getName());
+        }
+        assertEquals(Arrays.asList("a:dominant", "b:dominant", "c:recessive", "d:recessive"), descriptions);
+    }
+
+    private static Repository repository(String id, String name) {
+        Repository repository = new Repository();
+        repository.setId(id);
+        repository.setName(name);
+        return repository;
+    }
+
+    /**
+     * The merge as it was before it was computed in one pass, reordering the child after each parent plugin.
+     */
+    private static void legacyMergePluginLists(
+            PluginContainer childContainer, PluginContainer parentContainer, boolean handleAsInheritance) {
+        List<Plugin> parentPlugins = new ArrayList<>(parentContainer.getPlugins());
+        if (parentPlugins.isEmpty()) {
+            return;
+        }
+        if (handleAsInheritance) {
+            parentPlugins.removeIf(p -> p.getInherited() != null && !Boolean.parseBoolean(p.getInherited()));
+        }
+
+        List<Plugin> assembledPlugins = new ArrayList<>();
+        Map<String, Plugin> childPlugins = childContainer.getPluginsAsMap();
+        for (Plugin parentPlugin : parentPlugins) {
+            String parentInherited = parentPlugin.getInherited();
+            if (!handleAsInheritance || (parentInherited == null) || Boolean.parseBoolean(parentInherited)) {
+                Plugin childPlugin = childPlugins.get(parentPlugin.getKey());
+                if ((childPlugin != null) && !assembledPlugins.contains(childPlugin)) {
+                    ModelUtils.mergePluginDefinitions(childPlugin, parentPlugin, handleAsInheritance);
+                    assembledPlugins.add(childPlugin);
+                }
+                if (handleAsInheritance && (parentInherited == null)) {
+                    parentPlugin.unsetInheritanceApplied();
+                }
+            }
+            childContainer.setPlugins(
+                    ModelUtils.orderAfterMerge(assembledPlugins, parentPlugins, childContainer.getPlugins()));
+            childContainer.flushPluginMap();
+        }
+    }
+
+    /**
+     * A list of distinct plugins picked among twelve, in random order, with random versions and inherited flags.
+     */
+    private static PluginContainer randomContainer(Random random, String version) {
+        List<String> artifactIds = new ArrayList<>();
+        for (char c = 'A'; c < 'M'; c++) {
+            if (random.nextInt(3) > 0) {
+                artifactIds.add(String.valueOf(c));
+            }
+        }
+        Collections.shuffle(artifactIds, random);
+
+        PluginContainer container = new Build();
+        for (String artifactId : artifactIds) {
+            Plugin plugin = plugin(artifactId);
+            plugin.setVersion(random.nextBoolean() ? version + "-" + artifactId : null);
+            plugin.setInherited(INHERITED[random.nextInt(INHERITED.length)]);
+            container.addPlugin(plugin);
+        }
+        return container;
+    }
+
+    private static PluginContainer container(String... artifactIds) {
+        PluginContainer container = new Build();
+        for (String artifactId : artifactIds) {
+            container.addPlugin(plugin(artifactId));
+        }
+        return container;
+    }
+
+    private static Plugin plugin(String artifactId) {
+        Plugin plugin = new Plugin();
+        plugin.setGroupId("test");
+        plugin.setArtifactId(artifactId);
+        return plugin;
+    }
+
+    private static List<String> artifactIds(List<Plugin> plugins) {
+        List<String> artifactIds = new ArrayList<>();
+        for (Plugin plugin : plugins) {
+            artifactIds.add(plugin.getArtifactId());
+        }
+        return artifactIds;
+    }
+
+    private static List<String> describe(List<Plugin> plugins) {
+        List<String> descriptions = new ArrayList<>();
+        for (Plugin plugin : plugins) {
+            descriptions.add(plugin.getKey() + ":" + plugin.getVersion() + ":" + plugin.getInherited() + ":"
+                    + plugin.isInheritanceApplied());
+        }
+        return descriptions;
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugin.resources.remote;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+
+import org.apache.maven.model.Resource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProjectFilesTest {
+    @TempDir
+    File basedir;
+
+    @Test
+    void lookupsMatchTheFileSystem() throws IOException {
+        File directory = new File(basedir, "src/main/resources");
+        new File(directory, "META-INF").mkdirs();
+        assertTrue(new File(directory, "META-INF/Notice.txt").createNewFile());
+        assertTrue(new File(basedir, "License.txt").createNewFile());
+
+        Resource resource = new Resource();
+        resource.setDirectory(directory.getPath());
+        ProjectFiles projectFiles = new ProjectFiles(Collections.singletonList(resource), basedir);
+        ProjectFiles.ResourceDirectory resourceDirectory = projectFiles.getResourceDirectories().get(0);
+
+        assertTrue(resourceDirectory.contains("META-INF/Notice.txt"));
+        assertFalse(resourceDirectory.contains("META-INF/Other.txt"));
+        // as case sensitive as the file system
+        assertEquals(
+                new File(directory, "META-INF/NOTICE.TXT").exists(), resourceDirectory.contains("META-INF/NOTICE.TXT"));
+
+        assertTrue(projectFiles.existsInBasedir("License.txt"));
+        assertTrue(projectFiles.existsInBasedir("src/main"));
+        assertFalse(projectFiles.existsInBasedir("Other.txt"));
+        assertEquals(new File(basedir, "license.txt").exists(), projectFiles.existsInBasedir("license.txt"));
+    }
+}
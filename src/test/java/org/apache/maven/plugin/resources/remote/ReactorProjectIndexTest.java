@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugin.resources.remote;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.DefaultMavenExecutionResult;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.project.MavenProject;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ReactorProjectIndexTest {
+    @Test
+    void findsProjectsByGav() {
+        MavenProject first = project("test", "first", "1.0");
+        MavenProject second = project("test", "second", "1.0");
+        MavenSession session = session();
+        session.setProjects(Arrays.asList(first, second));
+
+        ReactorProjectIndex index = ReactorProjectIndex.of(session);
+
+        assertSame(first, index.get("test", "first", "1.0"));
+        assertSame(second, index.get("test", "second", "1.0"));
+        assertNull(index.get("test", "first", "2.0"));
+        assertNull(index.get("other", "first", "1.0"));
+        assertSame(index, ReactorProjectIndex.of(session));
+    }
+
+    @Test
+    void rebuiltWhenSessionProjectsChange() {
+        MavenProject first = project("test", "first", "1.0");
+        MavenSession session = session();
+        session.setProjects(Collections.singletonList(first));
+        ReactorProjectIndex index = ReactorProjectIndex.of(session);
+
+        MavenProject second = project("test", "second", "1.0");
+        session.setProjects(Collections.singletonList(second));
+        ReactorProjectIndex rebuilt = ReactorProjectIndex.of(session);
+
+        assertNull(rebuilt.get("test", "first", "1.0"));
+        assertSame(second, rebuilt.get("test", "second", "1.0"));
+        assertSame(first, index.get("test", "first", "1.0"));
+        assertSame(rebuilt, ReactorProjectIndex.of(session));
+    }
+
+    private static MavenSession session() {
+        return new MavenSession(
+                null,
+                new DefaultRepositorySystemSession(),
+                new DefaultMavenExecutionRequest(),
+                new DefaultMavenExecutionResult());
+    }
+
+    private static MavenProject project(String groupId, String artifactId, String version) {
+        MavenProject project = new MavenProject();
+        project.setGroupId(groupId);
+        project.setArtifactId(artifactId);
+        project.setVersion(version);
+        return project;
+    }
+}
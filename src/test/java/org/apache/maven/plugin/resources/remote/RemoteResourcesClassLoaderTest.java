@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugin.resources.remote;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.codehaus.plexus.util.IOUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RemoteResourcesClassLoaderTest {
+    @TempDir
+    File temp;
+
+    @Test
+    void findsResourcesOfLocalBundlesInOrder() throws IOException {
+        File first = bundle("first", "shared.txt", "first");
+        File second = bundle("second", "shared.txt", "second");
+
+        try (RemoteResourcesClassLoader loader = new RemoteResourcesClassLoader(null)) {
+            loader.addURL(first.toURI().toURL());
+            loader.addURL(second.toURI().toURL());
+
+            assertEquals(
+                    Arrays.asList(first.toURI().toURL(), second.toURI().toURL()), Arrays.asList(loader.getURLs()));
+            assertEquals(new File(first, "shared.txt").toURI().toURL(), loader.getResource("shared.txt"));
+            assertEquals("first", read(loader.getResourceAsStream("shared.txt")));
+
+            List<URL> all = Collections.list(loader.getResources("shared.txt"));
+            assertEquals(2, all.size());
+            assertEquals("second", read(all.get(1).openStream()));
+
+            assertNull(loader.getResource("missing.txt"));
+            assertNull(loader.getResourceAsStream("missing.txt"));
+        }
+    }
+
+    @Test
+    void indexesAgainWhenBundlesAreAdded() throws IOException {
+        File first = bundle("first", "first.txt", "first");
+        File second = bundle("second", "second.txt", "second");
+
+        try (RemoteResourcesClassLoader loader = new RemoteResourcesClassLoader(null)) {
+            loader.addURL(first.toURI().toURL());
+            assertNotNull(loader.getResource("first.txt"));
+            assertNull(loader.getResource("second.txt"));
+
+            loader.addURL(second.toURI().toURL());
+            assertEquals("second", read(loader.getResourceAsStream("second.txt")));
+        }
+    }
+
+    @Test
+    void leavesOtherUrlsToTheUrlClassLoader() throws IOException {
+        // a file URL with an authority cannot be converted to a file
+        URL share = new URL("file://server/share/bundle.jar");
+
+        try (RemoteResourcesClassLoader loader = new RemoteResourcesClassLoader(null)) {
+            loader.addURL(share);
+
+            assertTrue(Arrays.asList(loader.getURLs()).contains(share));
+        }
+    }
+
+    private File bundle(String name, String file, String content) throws IOException {
+        File bundle = new File(temp, name);
+        bundle.mkdirs();
+        try (OutputStream out = Files.newOutputStream(new File(bundle, file).toPath())) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return bundle;
+    }
+
+    private static String read(InputStream stream) throws IOException {
+        try (InputStream in = stream) {
+            return IOUtil.toString(in, "UTF-8");
+        }
+    }
+}
@@ -28,7 +28,12 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.jar.JarOutputStream;
 import java.util.zip.ZipEntry;
 
@@ -41,6 +46,8 @@ import org.apache.maven.artifact.versioning.VersionRange;
 import org.apache.maven.execution.DefaultMavenExecutionRequest;
 import org.apache.maven.execution.DefaultMavenExecutionResult;
 import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.SystemStreamLog;
 import org.apache.maven.plugin.resources.remote.stub.MavenProjectBuildStub;
 import org.apache.maven.plugin.resources.remote.stub.MavenProjectResourcesStub;
 import org.apache.maven.plugin.testing.AbstractMojoTestCase;
@@ -117,6 +124,383 @@ public class RemoteResourcesMojoTest extends AbstractMojoTestCase {
         assertTrue(file.exists());
     }
 
+    public void testUnchangedResourceNotRewritten() throws Exception {
+        final MavenProjectResourcesStub project = createTestProject("default-unchangedresource");
+        setupDefaultProject(project);
+
+        String path = pathOf(new DefaultArtifact(
+                "test", "test", VersionRange.createFromVersion("1.9"), null, "jar", "", new DefaultArtifactHandler()));
+        File file = new File(path);
+        file.getParentFile().mkdirs();
+        buildResourceBundle("default-unchangedresource-create", null, new String[] {"SIMPLE.txt"}, file);
+
+        ProcessRemoteResourcesMojo mojo = lookupProcessMojoWithSettings(project, new String[] {"test:test:1.9"});
+        mojo.execute();
+        File output = new File((File) getVariableValueFromObject(mojo, "outputDirectory"), "SIMPLE.txt");
+        assertTrue(output.setLastModified(1000000000000L));
+
+        mojo = lookupProcessMojoWithSettings(project, new String[] {"test:test:1.9"});
+        mojo.execute();
+        assertEquals(1000000000000L, output.lastModified());
+
+        // a modified output is restored
+        FileUtils.fileWrite(output, "modified");
+        mojo = lookupProcessMojoWithSettings(project, new String[] {"test:test:1.9"});
+        mojo.execute();
+        File source = new File(getBasedir(), "src/test/resources/SIMPLE.txt");
+        assertEquals(FileUtils.fileRead(source), FileUtils.fileRead(output));
+    }
+
+    public void testRenderedResourceAboveInMemoryThreshold() throws Exception {
+        final MavenProjectResourcesStub project = createTestProject("default-inmemorythreshold");
+        setupDefaultProject(project);
+
+        String path = pathOf(new DefaultArtifact(
+                "test", "test", VersionRange.createFromVersion("1.10"), null, "jar", "", new DefaultArtifactHandler()));
+        File file = new File(path);
+        file.getParentFile().mkdirs();
+        buildResourceBundle("default-inmemorythreshold-create", null, new String[] {"PROPERTIES.txt.vm"}, file);
+
+        Map<String, String> properties = new HashMap<>();
+        properties.put("testingPropertyOne", "one");
+        properties.put("testingPropertyTwo", "two");
+
+        ProcessRemoteResourcesMojo mojo = lookupProcessMojoWithSettings(project, new String[] {"test:test:1.10"});
+        setVariableValueToObject(mojo, "properties", properties);
+        setVariableValueToObject(mojo, "velocityFilterInMemoryThreshold", 8);
+        mojo.execute();
+
+        File outputDirectory = (File) getVariableValueFromObject(mojo, "outputDirectory");
+        File output = new File(outputDirectory, "PROPERTIES.txt");
+        assertTrue(FileUtils.fileRead(output).contains("one"));
+        assertTrue(output.setLastModified(1000000000000L));
+
+        // identical content streamed to a temporary file leaves the output untouched
+        mojo = lookupProcessMojoWithSettings(project, new String[] {"test:test:1.10"});
+        setVariableValueToObject(mojo, "properties", properties);
+        setVariableValueToObject(mojo, "velocityFilterInMemoryThreshold", 8);
+        mojo.execute();
+        assertEquals(1000000000000L, output.lastModified());
+
+        properties.put("testingPropertyOne", "changed");
+        mojo = lookupProcessMojoWithSettings(project, new String[] {"test:test:1.10"});
+        setVariableValueToObject(mojo, "properties", properties);
+        setVariableValueToObject(mojo, "velocityFilterInMemoryThreshold", 8);
+        mojo.execute();
+        assertTrue(FileUtils.fileRead(output).contains("changed"));
+        assertEquals(Collections.emptyList(), FileUtils.getFileNames(outputDirectory, "**/*.tmp", null, false));
+    }
+
+    public void testTemplatesParsedOncePerSession() throws Exception {
+        final MavenProjectResourcesStub project = createTestProject("default-templatecache");
+        setupDefaultProject(project);
+
+        String path = pathOf(new DefaultArtifact(
+                "test", "test", VersionRange.createFromVersion("1.11"), null, "jar", "", new DefaultArtifactHandler()));
+        File file = new File(path);
+        file.getParentFile().mkdirs();
+        buildResourceBundle("default-templatecache-create", null, new String[] {"PROPERTIES.txt.vm"}, file);
+
+        Map<String, String> properties = new HashMap<>();
+        properties.put("testingPropertyOne", "one");
+        properties.put("testingPropertyTwo", "two");
+
+        ProcessRemoteResourcesMojo mojo = lookupProcessMojoWithSettings(project, new String[] {"test:test:1.11"});
+        setVariableValueToObject(mojo, "properties", properties);
+        mojo.execute();
+        MavenSession session = (MavenSession) getVariableValueFromObject(mojo, "mavenSession");
+
+        properties.put("testingPropertyOne", "other");
+        ProcessRemoteResourcesMojo other = lookupProcessMojoWithSettings(project, new String[] {"test:test:1.11"});
+        setVariableValueToObject(other, "properties", properties);
+        setVariableValueToObject(other, "mavenSession", session);
+        other.execute();
+
+        TemplateCache cache = TemplateCache.of(session);
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+        File output = new File((File) getVariableValueFromObject(other, "outputDirectory"), "PROPERTIES.txt");
+        assertTrue(FileUtils.fileRead(output).contains("other"));
+    }
+
+    public void testInlineMacrosLocalToTheirBundle() throws Exception {
+        final MavenProjectResourcesStub project = createTestProject("default-inlinemacros");
+        setupDefaultProject(project);
+
+        String[] bundles = {"GREETING.txt.vm", "FAREWELL.txt.vm"};
+        for (int i = 0; i < bundles.length; i++) {
+            String path = pathOf(new DefaultArtifact(
+                    "test",
+                    "test",
+                    VersionRange.createFromVersion("1.1" + (8 + i)),
+                    null,
+                    "jar",
+                    "",
+                    new DefaultArtifactHandler()));
+            File file = new File(path);
+            file.getParentFile().mkdirs();
+            buildResourceBundle("default-inlinemacros-create-" + i, null, new String[] {bundles[i]}, file);
+        }
+
+        ProcessRemoteResourcesMojo mojo = lookupProcessMojoWithSettings(project, new String[] {"test:test:1.18"});
+        mojo.execute();
+        File outputDirectory = (File) getVariableValueFromObject(mojo, "outputDirectory");
+        assertTrue(FileUtils.fileRead(new File(outputDirectory, "GREETING.txt")).contains("Hello, remote resources"));
+
+        // another module of the session defines a macro of the same name in its own bundle
+        ProcessRemoteResourcesMojo other = lookupProcessMojoWithSettings(project, new String[] {"test:test:1.19"});
+        setVariableValueToObject(other, "mavenSession", getVariableValueFromObject(mojo, "mavenSession"));
+        other.execute();
+        assertTrue(FileUtils.fileRead(new File(outputDirectory, "FAREWELL.txt")).contains("Goodbye, remote resources"));
+    }
+
+    public void testAppendedTemplateParsedOnceUntilChanged() throws Exception {
+        final MavenProjectResourcesStub project = createTestProject("default-appendedtemplate");
+        setupDefaultProject(project);
+
+        String path = pathOf(new DefaultArtifact(
+                "test", "test", VersionRange.createFromVersion("1.12"), null, "jar", "", new DefaultArtifactHandler()));
+        File file = new File(path);
+        file.getParentFile().mkdirs();
+        buildResourceBundle("default-appendedtemplate-create", null, new String[] {"SIMPLE.txt"}, file);
+
+        File appendedResourcesDirectory = new File(project.getBasedir(), "src/main/appended-resources");
+        appendedResourcesDirectory.mkdirs();
+        File appended = new File(appendedResourcesDirectory, "SIMPLE.txt.vm");
+        FileUtils.fileWrite(appended, "appended to ${project.artifactId}");
+
+        ProcessRemoteResourcesMojo mojo = lookupProcessMojoWithSettings(project, new String[] {"test:test:1.12"});
+        setVariableValueToObject(mojo, "appendedResourcesDirectory", appendedResourcesDirectory);
+        mojo.execute();
+        MavenSession session = (MavenSession) getVariableValueFromObject(mojo, "mavenSession");
+        File output = new File((File) getVariableValueFromObject(mojo, "outputDirectory"), "SIMPLE.txt");
+        assertTrue(FileUtils.fileRead(output).contains("appended to " + project.getArtifactId()));
+
+        mojo = lookupProcessMojoWithSettings(project, new String[] {"test:test:1.12"});
+        setVariableValueToObject(mojo, "appendedResourcesDirectory", appendedResourcesDirectory);
+        setVariableValueToObject(mojo, "mavenSession", session);
+        mojo.execute();
+        TemplateCache cache = TemplateCache.of(session);
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+
+        // a modified template is parsed again
+        FileUtils.fileWrite(appended, "changed for ${project.artifactId}");
+        assertTrue(appended.setLastModified(1000000000000L));
+        mojo = lookupProcessMojoWithSettings(project, new String[] {"test:test:1.12"});
+        setVariableValueToObject(mojo, "appendedResourcesDirectory", appendedResourcesDirectory);
+        setVariableValueToObject(mojo, "mavenSession", session);
+        mojo.execute();
+        assertEquals(2, cache.getMisses());
+        assertTrue(FileUtils.fileRead(output).contains("changed for " + project.getArtifactId()));
+    }
+
+    public void testProjectResourceOverrideHonorsExcludes() throws Exception {
+        final MavenProjectResourcesStub project = createTestProject("default-resourceoverride");
+        setupDefaultProject(project);
+        FileUtils.fileWrite(new File(project.getResourcesDirectory(), "SIMPLE.txt"), "local override");
+
+        String path = pathOf(new DefaultArtifact(
+                "test", "test", VersionRange.createFromVersion("1.13"), null, "jar", "", new DefaultArtifactHandler()));
+        File file = new File(path);
+        file.getParentFile().mkdirs();
+        buildResourceBundle("default-resourceoverride-create", null, new String[] {"SIMPLE.txt"}, file);
+
+        // a plain name, as added for an override, does not hide it
+        project.addExclude("SIMPLE.txt");
+        ProcessRemoteResourcesMojo mojo = lookupProcessMojoWithSettings(project, new String[] {"test:test:1.13"});
+        mojo.execute();
+        File output = new File((File) getVariableValueFromObject(mojo, "outputDirectory"), "SIMPLE.txt");
+        assertEquals("local override", FileUtils.fileRead(output));
+
+        project.addExclude("**/*.txt");
+        mojo = lookupProcessMojoWithSettings(project, new String[] {"test:test:1.13"});
+        mojo.execute();
+        File source = new File(getBasedir(), "src/test/resources/SIMPLE.txt");
+        assertEquals(FileUtils.fileRead(source), FileUtils.fileRead(output));
+    }
+
+    public void testConflictingBundleResourcesReported() throws Exception {
+        final MavenProjectResourcesStub project = createTestProject("default-conflictingresources");
+        setupDefaultProject(project);
+
+        String[] bundles = {"test:test:1.14", "test:other:1.0"};
+        for (String bundle : bundles) {
+            String[] coordinates = bundle.split(":");
+            File file = new File(pathOf(new DefaultArtifact(
+                    coordinates[0],
+                    coordinates[1],
+                    VersionRange.createFromVersion(coordinates[2]),
+                    null,
+                    "jar",
+                    "",
+                    new DefaultArtifactHandler())));
+            file.getParentFile().mkdirs();
+            buildResourceBundle(
+                    "default-conflictingresources-" + coordinates[1], null, new String[] {"SIMPLE.txt"}, file);
+        }
+
+        final List<String> warnings = new ArrayList<>();
+        ProcessRemoteResourcesMojo mojo = lookupProcessMojoWithSettings(project, bundles);
+        mojo.setLog(new SystemStreamLog() {
+            @Override
+            public void warn(CharSequence content) {
+                warnings.add(content.toString());
+            }
+        });
+        mojo.execute();
+
+        assertEquals(1, warnings.size());
+        assertTrue(warnings.get(0), warnings.get(0).startsWith("Resource SIMPLE.txt is provided by both"));
+        assertTrue(new File((File) getVariableValueFromObject(mojo, "outputDirectory"), "SIMPLE.txt").exists());
+    }
+
+    public void testSupplementalModels() throws Exception {
+        final MavenProjectResourcesStub project = createTestProject("default-supplementalmodels");
+        setupDefaultProject(project);
+
+        Artifact dependency = installDependency("test-deps", "deficient", "1.0", "Deficient Dependency");
+        project.setArtifacts(Collections.singleton(dependency));
+
+        File supplementalModels = new File(project.getBasedir(), "supplemental-models.xml");
+        FileUtils.fileWrite(
+                supplementalModels,
+                "UTF-8",
+                "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<supplementalDataModels>"
+                        + "<supplement><project><groupId>test-deps</groupId><artifactId>other</artifactId>"
+                        + "<name>Other</name></project></supplement>"
+                        + "<supplement><project><groupId>test-deps</groupId><artifactId>deficient</artifactId>"
+                        + "<name>Deficient Dependency</name><organization><name>Supplied &amp; Co\u00e9</name>"
+                        + "</organization></project></supplement></supplementalDataModels>");
+
+        String path = pathOf(new DefaultArtifact(
+                "test", "test", VersionRange.createFromVersion("1.15"), null, "jar", "", new DefaultArtifactHandler()));
+        File file = new File(path);
+        file.getParentFile().mkdirs();
+        buildResourceBundle("default-supplementalmodels-create", "UTF-8", new String[] {"METADATA.txt.vm"}, file);
+
+        ProcessRemoteResourcesMojo mojo = lookupProcessMojoWithSettings(project, new String[] {"test:test:1.15"});
+        setVariableValueToObject(mojo, "supplementalModels", new String[] {supplementalModels.getAbsolutePath()});
+        mojo.execute();
+
+        File output = new File((File) getVariableValueFromObject(mojo, "outputDirectory"), "METADATA.txt");
+        assertTrue(FileUtils.fileRead(output, "UTF-8").contains("deficient: Deficient Dependency"));
+        assertTrue(FileUtils.fileRead(output, "UTF-8").contains("Supplied & Co\u00e9"));
+        // read in place, without a copy to the build directory
+        assertFalse(new File(project.getBuild().getDirectory(), "supplemental-models.xml").exists());
+
+        // another module of the session shares the loaded supplements
+        output.delete();
+        ProcessRemoteResourcesMojo other = lookupProcessMojoWithSettings(project, new String[] {"test:test:1.15"});
+        setVariableValueToObject(other, "supplementalModels", new String[] {supplementalModels.getAbsolutePath()});
+        setVariableValueToObject(other, "mavenSession", getVariableValueFromObject(mojo, "mavenSession"));
+        other.execute();
+        assertSame(
+                getVariableValueFromObject(mojo, "supplementModels"),
+                getVariableValueFromObject(other, "supplementModels"));
+        assertTrue(FileUtils.fileRead(output, "UTF-8").contains("Supplied & Co\u00e9"));
+    }
+
+    public void testSupplementFallsBackToDependency() throws Exception {
+        final MavenProjectResourcesStub project = createTestProject("default-supplementfallback");
+        setupDefaultProject(project);
+
+        Artifact dependency = installPom(
+                "test-deps",
+                "partial",
+                "1.0",
+                "<project><modelVersion>4.0.0</modelVersion><groupId>test-deps</groupId>"
+                        + "<artifactId>partial</artifactId><version>1.0</version><name>Partial Dependency</name>"
+                        + "<url>https://example.org/partial</url></project>");
+        project.setArtifacts(Collections.singleton(dependency));
+
+        File supplementalModels = new File(project.getBasedir(), "supplemental-models.xml");
+        FileUtils.fileWrite(
+                supplementalModels,
+                "UTF-8",
+                "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<supplementalDataModels>"
+                        + "<supplement><project><groupId>test-deps</groupId><artifactId>partial</artifactId>"
+                        + "<organization><name>Supplied Org</name></organization>"
+                        + "<licenses><license><name>Supplied License</name></license></licenses>"
+                        + "</project></supplement></supplementalDataModels>");
+
+        String path = pathOf(new DefaultArtifact(
+                "test", "test", VersionRange.createFromVersion("1.17"), null, "jar", "", new DefaultArtifactHandler()));
+        File file = new File(path);
+        file.getParentFile().mkdirs();
+        buildResourceBundle("default-supplementfallback-create", "UTF-8", new String[] {"METADATA.txt.vm"}, file);
+
+        ProcessRemoteResourcesMojo mojo = lookupProcessMojoWithSettings(project, new String[] {"test:test:1.17"});
+        setVariableValueToObject(mojo, "supplementalModels", new String[] {supplementalModels.getAbsolutePath()});
+        mojo.execute();
+
+        // the fields missing from the supplement are the ones of the dependency, unchanged
+        File output = new File((File) getVariableValueFromObject(mojo, "outputDirectory"), "METADATA.txt");
+        String metadata = FileUtils.fileRead(output, "UTF-8");
+        assertTrue(
+                metadata,
+                metadata.contains(
+                        "partial: Partial Dependency, https://example.org/partial, Supplied Org, Supplied License"));
+    }
+
+    public void testVersionedAndWildcardSupplements() throws Exception {
+        final MavenProjectResourcesStub project = createTestProject("default-versionedsupplements");
+        setupDefaultProject(project);
+
+        Artifact ranged = installDependency("org.example.deps", "ranged", "2.0", "Ranged");
+        Artifact legacy = installDependency("org.example.deps", "legacy", "1.5", "Legacy");
+        project.setArtifacts(new LinkedHashSet<>(Arrays.asList(ranged, legacy)));
+
+        File supplementalModels = new File(project.getBasedir(), "supplemental-models.xml");
+        FileUtils.fileWrite(
+                supplementalModels,
+                "UTF-8",
+                "<supplementalDataModels>"
+                        + supplement(null, "org.example.*", "ranged", "Ranged", "Wildcard Org")
+                        + supplement("[1.0,2.0)", "org.example.deps", "ranged", "Ranged", "Old Org")
+                        + supplement("[1.0,2.0)", "org.example.deps", "legacy", "Legacy", "Legacy Org")
+                        + supplement("2.0", "org.example.deps", "legacy", "Legacy", "Newer Org")
+                        + "</supplementalDataModels>");
+
+        String path = pathOf(new DefaultArtifact(
+                "test", "test", VersionRange.createFromVersion("1.16"), null, "jar", "", new DefaultArtifactHandler()));
+        File file = new File(path);
+        file.getParentFile().mkdirs();
+        buildResourceBundle("default-versionedsupplements-create", null, new String[] {"METADATA.txt.vm"}, file);
+
+        ProcessRemoteResourcesMojo mojo = lookupProcessMojoWithSettings(project, new String[] {"test:test:1.16"});
+        setVariableValueToObject(mojo, "supplementalModels", new String[] {supplementalModels.getAbsolutePath()});
+        mojo.execute();
+
+        File output = new File((File) getVariableValueFromObject(mojo, "outputDirectory"), "METADATA.txt");
+        String metadata = FileUtils.fileRead(output);
+        assertTrue(metadata, metadata.contains("ranged: Ranged, ${p.url}, Wildcard Org"));
+        assertTrue(metadata, metadata.contains("legacy: Legacy, ${p.url}, Legacy Org"));
+    }
+
+    private static String supplement(
+            String versionRange, String groupId, String artifactId, String name, String organization) {
+        return "<supplement>" + (versionRange != null ? "<versionRange>" + versionRange + "</versionRange>" : "")
+                + "<project><groupId>" + groupId + "</groupId><artifactId>" + artifactId + "</artifactId><name>"
+                + name + "</name><organization><name>" + organization + "</name></organization></project>"
+                + "</supplement>";
+    }
+
+    public void testMissingBundlesReportedTogether() throws Exception {
+        final MavenProjectResourcesStub project = createTestProject("default-missingbundles");
+        final ProcessRemoteResourcesMojo mojo = lookupProcessMojoWithSettings(
+                project, new String[] {"test:missing-a:1.0", "test:missing-b:1.0"});
+
+        setupDefaultProject(project);
+
+        try {
+            mojo.execute();
+            fail("Unresolvable bundles should fail the build");
+        } catch (MojoExecutionException e) {
+            assertThat(e.getMessage(), stringContainsInOrder("test:missing-a:jar:1.0", "test:missing-b:jar:1.0"));
+        }
+    }
+
     public void testSimpleBundlesWithType() throws Exception {
         final MavenProjectResourcesStub project = createTestProject("default-simplebundles");
         final ProcessRemoteResourcesMojo mojo =
@@ -279,6 +663,385 @@ public class RemoteResourcesMojoTest extends AbstractMojoTestCase {
         assertTrue(data.contains("rules"));
     }
 
+    public void testDependencyProjectsBuiltInParallel() throws Exception {
+        final MavenProjectResourcesStub project = createTestProject("default-dependencyprojects");
+        setupDefaultProject(project);
+
+        Set<Artifact> artifacts = new LinkedHashSet<>();
+        for (int i = 5; i > 0; i--) {
+            artifacts.add(installDependency("test-deps", "dep-" + i, "1.0", "Dependency " + i));
+        }
+        project.setArtifacts(artifacts);
+
+        String path = pathOf(new DefaultArtifact(
+                "test", "test", VersionRange.createFromVersion("1.4"), null, "jar", "", new DefaultArtifactHandler()));
+        File file = new File(path);
+        file.getParentFile().mkdirs();
+        buildResourceBundle("default-dependencyprojects-create", null, new String[] {"DEPENDENCIES.txt.vm"}, file);
+
+        ProcessRemoteResourcesMojo mojo = lookupProcessMojoWithSettings(project, new String[] {"test:test:1.4"});
+        setVariableValueToObject(mojo, "projectBuildThreads", 1);
+        mojo.execute();
+
+        File output = new File((File) getVariableValueFromObject(mojo, "outputDirectory"), "DEPENDENCIES.txt");
+        String serial = FileUtils.fileRead(output);
+        assertThat(
+                serial,
+                stringContainsInOrder(
+                        "test-deps:dep-1:1.0 Dependency 1",
+                        "test-deps:dep-3:1.0 Dependency 3",
+                        "test-deps:dep-5:1.0 Dependency 5"));
+
+        mojo = lookupProcessMojoWithSettings(project, new String[] {"test:test:1.4"});
+        setVariableValueToObject(mojo, "projectBuildThreads", 3);
+        mojo.execute();
+
+        assertEquals(serial, FileUtils.fileRead(output));
+
+        // the other modules of the session share the threads of the first one
+        MavenSession session = (MavenSession) getVariableValueFromObject(mojo, "mavenSession");
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) DependencyProjectCache.of(session).getExecutor(3);
+        ProcessRemoteResourcesMojo other = lookupProcessMojoWithSettings(project, new String[] {"test:test:1.4"});
+        setVariableValueToObject(other, "projectBuildThreads", 8);
+        setVariableValueToObject(other, "mavenSession", session);
+        other.execute();
+
+        assertEquals(serial, FileUtils.fileRead(output));
+        assertSame(executor, DependencyProjectCache.of(session).getExecutor(8));
+        assertEquals(3, executor.getMaximumPoolSize());
+    }
+
+    public void testDependencyProjectsCachedPerSession() throws Exception {
+        final MavenProjectResourcesStub project = createTestProject("default-dependencycache");
+        setupDefaultProject(project);
+
+        Artifact dependency = installDependency("test-deps", "cached", "1.0", "Cached Dependency");
+        project.setArtifacts(Collections.singleton(dependency));
+
+        String path = pathOf(new DefaultArtifact(
+                "test", "test", VersionRange.createFromVersion("1.4"), null, "jar", "", new DefaultArtifactHandler()));
+        File file = new File(path);
+        file.getParentFile().mkdirs();
+        buildResourceBundle("default-dependencycache-create", null, new String[] {"DEPENDENCIES.txt.vm"}, file);
+
+        ProcessRemoteResourcesMojo mojo = lookupProcessMojoWithSettings(project, new String[] {"test:test:1.4"});
+        mojo.execute();
+
+        // another execution of the same session must not need the POM anymore
+        new File(pathOf(dependency).replaceAll("\\.jar$", ".pom")).delete();
+        File output = new File((File) getVariableValueFromObject(mojo, "outputDirectory"), "DEPENDENCIES.txt");
+        output.delete();
+
+        ProcessRemoteResourcesMojo other = lookupProcessMojoWithSettings(project, new String[] {"test:test:1.4"});
+        setVariableValueToObject(other, "mavenSession", getVariableValueFromObject(mojo, "mavenSession"));
+        other.execute();
+
+        assertTrue(FileUtils.fileRead(output).contains("test-deps:cached:1.0 Cached Dependency"));
+    }
+
+    public void testDependencyProjectsNotSharedBetweenModules() throws Exception {
+        final MavenProjectResourcesStub project = createTestProject("default-dependencycopies");
+        setupDefaultProject(project);
+
+        Artifact dependency = installDependency("test-deps", "copied", "1.0", "Copied Dependency");
+        project.setArtifacts(Collections.singleton(dependency));
+
+        ProcessRemoteResourcesMojo mojo = lookupProcessMojoWithSettings(project, new String[0]);
+        mojo.execute();
+        MavenProject first = mojo.getProjects().get(0);
+        assertSame(dependency, first.getArtifact());
+        // a template changing the project it is given
+        first.setName("Changed by a template");
+
+        // another module of the session, depending on the same project in another scope
+        Artifact testDependency = new DefaultArtifact(
+                "test-deps",
+                "copied",
+                VersionRange.createFromVersion("1.0"),
+                Artifact.SCOPE_TEST,
+                "jar",
+                null,
+                new DefaultArtifactHandler("jar"));
+        project.setArtifacts(Collections.singleton(testDependency));
+        ProcessRemoteResourcesMojo other = lookupProcessMojoWithSettings(project, new String[0]);
+        MavenSession session = (MavenSession) getVariableValueFromObject(mojo, "mavenSession");
+        setVariableValueToObject(other, "mavenSession", session);
+        other.execute();
+        MavenProject second = other.getProjects().get(0);
+
+        assertEquals(1, DependencyProjectCache.of(session).getMisses());
+        assertEquals("Copied Dependency", second.getName());
+        assertSame(testDependency, second.getArtifact());
+        assertSame(dependency, first.getArtifact());
+    }
+
+    public void testDependencyMetadataCache() throws Exception {
+        final MavenProjectResourcesStub project = createTestProject("default-metadatacache");
+        setupDefaultProject(project);
+
+        Artifact dependency = installDependency("test-deps", "persisted", "1.0", "Persisted Dependency");
+        project.setArtifacts(Collections.singleton(dependency));
+
+        String path = pathOf(new DefaultArtifact(
+                "test", "test", VersionRange.createFromVersion("1.4"), null, "jar", "", new DefaultArtifactHandler()));
+        File file = new File(path);
+        file.getParentFile().mkdirs();
+        buildResourceBundle("default-metadatacache-create", null, new String[] {"DEPENDENCIES.txt.vm"}, file);
+
+        File cacheDirectory = new File(project.getBasedir(), "target/metadata-cache");
+        ProcessRemoteResourcesMojo mojo = lookupProcessMojoWithSettings(project, new String[] {"test:test:1.4"});
+        setVariableValueToObject(mojo, "dependencyMetadataCache", cacheDirectory);
+        mojo.execute();
+
+        File entry = new File(cacheDirectory, "test-deps/persisted/1.0.properties");
+        assertTrue(entry.exists());
+
+        // a later build uses the cached metadata as long as the POM is unchanged
+        String cached = FileUtils.fileRead(entry);
+        FileUtils.fileWrite(entry, cached.replace("Persisted Dependency", "From Cache"));
+
+        mojo = lookupProcessMojoWithSettings(project, new String[] {"test:test:1.4"});
+        setVariableValueToObject(mojo, "dependencyMetadataCache", cacheDirectory);
+        mojo.execute();
+
+        File output = new File((File) getVariableValueFromObject(mojo, "outputDirectory"), "DEPENDENCIES.txt");
+        assertTrue(FileUtils.fileRead(output).contains("test-deps:persisted:1.0 From Cache"));
+
+        // an execution of the same session without the cache must not get the cached metadata
+        output.delete();
+        ProcessRemoteResourcesMojo other = lookupProcessMojoWithSettings(project, new String[] {"test:test:1.4"});
+        setVariableValueToObject(other, "mavenSession", getVariableValueFromObject(mojo, "mavenSession"));
+        other.execute();
+
+        assertTrue(FileUtils.fileRead(output).contains("test-deps:persisted:1.0 Persisted Dependency"));
+    }
+
+    public void testDependencyMetadataCacheHonorsProperties() throws Exception {
+        final MavenProjectResourcesStub project = createTestProject("default-metadatacacheproperties");
+        setupDefaultProject(project);
+
+        Artifact dependency = installPom(
+                "test-deps",
+                "interpolated",
+                "1.0",
+                "<project><modelVersion>4.0.0</modelVersion><groupId>test-deps</groupId>"
+                        + "<artifactId>interpolated</artifactId><version>1.0</version>"
+                        + "<name>Built for ${target.env}</name></project>");
+        project.setArtifacts(Collections.singleton(dependency));
+
+        String path = pathOf(new DefaultArtifact(
+                "test", "test", VersionRange.createFromVersion("1.4"), null, "jar", "", new DefaultArtifactHandler()));
+        File file = new File(path);
+        file.getParentFile().mkdirs();
+        buildResourceBundle(
+                "default-metadatacacheproperties-create", null, new String[] {"DEPENDENCIES.txt.vm"}, file);
+
+        File cacheDirectory = new File(project.getBasedir(), "target/metadata-cache");
+        ProcessRemoteResourcesMojo mojo = lookupProcessMojoWithSettings(project, new String[] {"test:test:1.4"});
+        setVariableValueToObject(mojo, "dependencyMetadataCache", cacheDirectory);
+        ((MavenSession) getVariableValueFromObject(mojo, "mavenSession"))
+                .getUserProperties()
+                .setProperty("target.env", "test");
+        mojo.execute();
+
+        File output = new File((File) getVariableValueFromObject(mojo, "outputDirectory"), "DEPENDENCIES.txt");
+        assertTrue(FileUtils.fileRead(output).contains("test-deps:interpolated:1.0 Built for test"));
+
+        // a later build with another value of the property must not use the cached metadata
+        mojo = lookupProcessMojoWithSettings(project, new String[] {"test:test:1.4"});
+        setVariableValueToObject(mojo, "dependencyMetadataCache", cacheDirectory);
+        ((MavenSession) getVariableValueFromObject(mojo, "mavenSession"))
+                .getUserProperties()
+                .setProperty("target.env", "production");
+        mojo.execute();
+
+        assertTrue(FileUtils.fileRead(output).contains("test-deps:interpolated:1.0 Built for production"));
+    }
+
+    public void testDependencyMetadataOnlyResolution() throws Exception {
+        final MavenProjectResourcesStub project = createTestProject("default-metadataonly");
+        setupDefaultProject(project);
+
+        installPom(
+                "test-deps",
+                "parent",
+                "1.0",
+                "<project><modelVersion>4.0.0</modelVersion><groupId>test-deps</groupId><artifactId>parent"
+                        + "</artifactId><version>1.0</version><packaging>pom</packaging><name>Parent</name>"
+                        + "<url>https://example.org/</url><organization><name>${org.name}</name></organization>"
+                        + "<licenses><license><name>Example License</name></license></licenses>"
+                        + "<properties><org.name>Example Org</org.name></properties></project>");
+        Artifact child = installPom(
+                "test-deps",
+                "child",
+                "1.0",
+                "<project><modelVersion>4.0.0</modelVersion><parent><groupId>test-deps</groupId>"
+                        + "<artifactId>parent</artifactId><version>1.0</version></parent><artifactId>child</artifactId>"
+                        + "<name>Child of ${project.parent.artifactId}</name></project>");
+        project.setArtifacts(Collections.singleton(child));
+
+        String path = pathOf(new DefaultArtifact(
+                "test", "test", VersionRange.createFromVersion("1.5"), null, "jar", "", new DefaultArtifactHandler()));
+        File file = new File(path);
+        file.getParentFile().mkdirs();
+        buildResourceBundle("default-metadataonly-create", null, new String[] {"METADATA.txt.vm"}, file);
+
+        ProcessRemoteResourcesMojo mojo = lookupProcessMojoWithSettings(project, new String[] {"test:test:1.5"});
+        setVariableValueToObject(mojo, "dependencyModelResolution", "metadata");
+        mojo.execute();
+
+        File output = new File((File) getVariableValueFromObject(mojo, "outputDirectory"), "METADATA.txt");
+        assertTrue(FileUtils.fileRead(output)
+                .contains("child: Child of parent, https://example.org/child, Example Org, Example License [jar]"));
+    }
+
+    public void testIncrementalProcessing() throws Exception {
+        String path = pathOf(new DefaultArtifact(
+                "test", "test", VersionRange.createFromVersion("1.6"), null, "jar", "", new DefaultArtifactHandler()));
+        File file = new File(path);
+        file.getParentFile().mkdirs();
+        buildResourceBundle("default-incremental-create", null, new String[] {"SIMPLE.txt"}, file);
+
+        List<String> messages = new ArrayList<>();
+        ProcessRemoteResourcesMojo mojo = lookupIncrementalMojo("default-incremental", "test:test:1.6", messages);
+        mojo.execute();
+        File output = new File((File) getVariableValueFromObject(mojo, "outputDirectory"), "SIMPLE.txt");
+        assertTrue(output.exists());
+        assertFalse(messages.contains("Remote resources are up to date, skipping processing"));
+
+        // nothing changed: the processing is skipped, but the output directory is still attached
+        mojo = lookupIncrementalMojo("default-incremental", "test:test:1.6", messages);
+        mojo.execute();
+        assertTrue(messages.contains("Remote resources are up to date, skipping processing"));
+        MavenProject project = (MavenProject) getVariableValueFromObject(mojo, "project");
+        assertEquals(2, project.getResources().size());
+
+        // a changed input processes the bundles again
+        messages.clear();
+        mojo = lookupIncrementalMojo("default-incremental", "test:test:1.6", messages);
+        setVariableValueToObject(mojo, "properties", Collections.singletonMap("changed", "true"));
+        mojo.execute();
+        assertFalse(messages.contains("Remote resources are up to date, skipping processing"));
+
+        // as does a deleted output
+        assertTrue(output.delete());
+        mojo = lookupIncrementalMojo("default-incremental", "test:test:1.6", messages);
+        setVariableValueToObject(mojo, "properties", Collections.singletonMap("changed", "true"));
+        mojo.execute();
+        assertFalse(messages.contains("Remote resources are up to date, skipping processing"));
+        assertTrue(output.exists());
+    }
+
+    public void testIncrementalRendering() throws Exception {
+        String path = pathOf(new DefaultArtifact(
+                "test", "test", VersionRange.createFromVersion("1.7"), null, "jar", "", new DefaultArtifactHandler()));
+        File file = new File(path);
+        file.getParentFile().mkdirs();
+        buildResourceBundle(
+                "default-incrementalrendering-create",
+                null,
+                new String[] {"PROPERTIES.txt.vm", "METADATA.txt.vm"},
+                file);
+
+        Map<String, String> properties = new HashMap<>();
+        properties.put("testingPropertyOne", "one");
+        properties.put("testingPropertyTwo", "two");
+
+        List<String> messages = new ArrayList<>();
+        ProcessRemoteResourcesMojo mojo =
+                lookupIncrementalMojo("default-incrementalrendering", "test:test:1.7", messages);
+        setVariableValueToObject(mojo, "properties", properties);
+        mojo.execute();
+
+        // only the template reading the changed property is rendered again
+        properties.put("testingPropertyOne", "changed");
+        messages.clear();
+        mojo = lookupIncrementalMojo("default-incrementalrendering", "test:test:1.7", messages);
+        setVariableValueToObject(mojo, "properties", properties);
+        mojo.execute();
+        assertTrue(messages.contains("Skipped 1 unchanged resource."));
+
+        File output = new File((File) getVariableValueFromObject(mojo, "outputDirectory"), "PROPERTIES.txt");
+        assertTrue(FileUtils.fileRead(output).contains("changed"));
+    }
+
+    public void testConcurrentRendering() throws Exception {
+        String path = pathOf(new DefaultArtifact(
+                "test", "test", VersionRange.createFromVersion("1.8"), null, "jar", "", new DefaultArtifactHandler()));
+        File file = new File(path);
+        file.getParentFile().mkdirs();
+        String[] resources = {"FILTER.txt.vm", "PROPERTIES.txt.vm", "METADATA.txt.vm", "SIMPLE.txt"};
+        buildResourceBundle("default-concurrentrendering-create", null, resources, file);
+
+        Map<String, String> properties = new HashMap<>();
+        properties.put("testingPropertyOne", "one");
+        properties.put("testingPropertyTwo", "two");
+
+        File[] outputDirectories = new File[2];
+        int[] threads = {1, 3};
+        for (int i = 0; i < threads.length; i++) {
+            final MavenProjectResourcesStub project = createTestProject("default-concurrentrendering-" + threads[i]);
+            setupDefaultProject(project);
+            ProcessRemoteResourcesMojo mojo = lookupProcessMojoWithSettings(project, new String[] {"test:test:1.8"});
+            setVariableValueToObject(mojo, "properties", properties);
+            setVariableValueToObject(mojo, "renderThreads", threads[i]);
+            mojo.execute();
+            outputDirectories[i] = (File) getVariableValueFromObject(mojo, "outputDirectory");
+        }
+
+        for (String resource : resources) {
+            String name = resource.replaceAll("\\.vm$", "");
+            String serial = FileUtils.fileRead(new File(outputDirectories[0], name));
+            String concurrent = FileUtils.fileRead(new File(outputDirectories[1], name));
+            assertEquals(name, serial.replace("concurrentrendering-1", "concurrentrendering-3"), concurrent);
+        }
+    }
+
+    private ProcessRemoteResourcesMojo lookupIncrementalMojo(String id, String bundle, final List<String> messages)
+            throws Exception {
+        final MavenProjectResourcesStub project = createTestProject(id);
+        setupDefaultProject(project);
+
+        ProcessRemoteResourcesMojo mojo = lookupProcessMojoWithSettings(project, new String[] {bundle});
+        setVariableValueToObject(mojo, "incremental", true);
+        setVariableValueToObject(mojo, "attachToMain", true);
+        mojo.setLog(new SystemStreamLog() {
+            @Override
+            public void info(CharSequence content) {
+                messages.add(content.toString());
+            }
+        });
+        return mojo;
+    }
+
+    protected Artifact installDependency(String groupId, String artifactId, String version, String name)
+            throws Exception {
+        return installPom(
+                groupId,
+                artifactId,
+                version,
+                "<project><modelVersion>4.0.0</modelVersion><groupId>" + groupId + "</groupId><artifactId>"
+                        + artifactId + "</artifactId><version>" + version + "</version><name>" + name
+                        + "</name></project>");
+    }
+
+    protected Artifact installPom(String groupId, String artifactId, String version, String content)
+            throws Exception {
+        Artifact artifact = new DefaultArtifact(
+                groupId,
+                artifactId,
+                VersionRange.createFromVersion(version),
+                Artifact.SCOPE_COMPILE,
+                "jar",
+                null,
+                new DefaultArtifactHandler("jar"));
+
+        File pom = new File(pathOf(artifact).replaceAll("\\.jar$", ".pom"));
+        pom.getParentFile().mkdirs();
+        FileUtils.fileWrite(pom.getAbsolutePath(), "UTF-8", content);
+        return artifact;
+    }
+
     protected void buildResourceBundle(String id, String sourceEncoding, String[] resourceNames, File jarName)
             throws Exception {
         final MavenProjectResourcesStub project = createTestProject(id);